@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.springframework.boot") version "3.2.0"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.ramya.ecomerce"
@@ -40,14 +41,33 @@ dependencies {
     // Jackson for JSON
     implementation("com.fasterxml.jackson.core:jackson-databind")
 
+    // Compressed bitmaps for catalog facets
+    implementation("org.roaringbitmap:RoaringBitmap:0.9.45")
+
     // Testing
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // Tests boot the application against an in-memory H2 database in MySQL mode
+    testRuntimeOnly("com.h2database:h2")
+
+    // Benchmarks (src/jmh) run against an in-memory H2 database in MySQL mode
+    jmh("com.h2database:h2")
 }
 
 tasks.test {
     useJUnitPlatform()
+}
+
+// ./gradlew jmh [-PjmhInclude=CatalogBenchmark] [-PjmhResults=build/reports/jmh/<commit>.json]
+jmh {
+    resultFormat.set("JSON")
+    resultsFile.set(project.file(project.findProperty("jmhResults") ?: "build/reports/jmh/results.json"))
+    project.findProperty("jmhInclude")?.let { includes.set(listOf(it.toString())) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgs.set(listOf("-Xmx6g"))
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ export default function Checkout() {
   const [loading, setLoading] = useState(false);
   const [orderPlaced, setOrderPlaced] = useState(false);
   const [expectedDelivery, setExpectedDelivery] = useState('');
+  // One key per checkout, so a retry after a timeout cannot place the order twice
+  const [idempotencyKey] = useState(() => crypto.randomUUID());
 
   const GST_RATE = 0.08;
   const gstAmount = total * GST_RATE;
@@ -50,7 +52,8 @@ export default function Checkout() {
         cardNumber,
         cardHolderName,
         expiryDate,
-        cvv
+        cvv,
+        idempotencyKey
       );
 
       setExpectedDelivery(response.expectedDeliveryDate);
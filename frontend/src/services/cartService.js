@@ -6,6 +6,11 @@ export const cartService = {
     return response.data;
   },
 
+  addToCartBulk: async (items) => {
+    const response = await API.post('/cart/bulk', { items });
+    return response.data;
+  },
+
   getCartItems: async () => {
     const response = await API.get('/cart');
     return response.data;
@@ -6,7 +6,9 @@ export const orderService = {
     return response.data;
   },
 
-  placeOrder: async (items, deliveryAddress, cardNumber, cardHolderName, expiryDate, cvv) => {
+  placeOrder: async (items, deliveryAddress, cardNumber, cardHolderName, expiryDate, cvv, idempotencyKey) => {
+    // Resubmitting with the same key returns the original order instead of placing a second one
+    const headers = idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {};
     const response = await API.post('/order', {
       items,
       deliveryAddress,
@@ -14,13 +16,41 @@ export const orderService = {
       cardHolderName,
       expiryDate,
       cvv
-    });
+    }, { headers });
+    // Async checkout answers 202 with a reference; wait for the queued order to be written
+    if (response.status === 202) {
+      return orderService.waitForOrder(response.data.reference);
+    }
     return response.data;
   },
 
+  getCheckoutStatus: async (reference) => {
+    const response = await API.get(`/order/status/${reference}`);
+    return response.data;
+  },
+
+  waitForOrder: async (reference, intervalMs = 500, attempts = 60) => {
+    for (let attempt = 0; attempt < attempts; attempt++) {
+      const status = await orderService.getCheckoutStatus(reference);
+      if (status.status === 'COMPLETED') {
+        return status.order;
+      }
+      if (status.status === 'FAILED') {
+        throw new Error(status.message);
+      }
+      await new Promise(resolve => setTimeout(resolve, intervalMs));
+    }
+    throw new Error('Timed out waiting for order confirmation');
+  },
+
   getOrderedItems: async () => {
     const response = await API.get('/order/ordered-items');
     return response.data;
+  },
+
+  getOrderHistory: async (limit, after, summary) => {
+    const response = await API.get('/order/history', { params: { limit, after, summary } });
+    return response.data;
   }
 };
 
@@ -11,6 +11,16 @@ export const productService = {
     return response.data;
   },
 
+  getProductsByIds: async (ids) => {
+    const response = await API.post('/products/batch', { ids });
+    return response.data;
+  },
+
+  suggestProducts: async (prefix, limit) => {
+    const response = await API.get('/products/suggest', { params: { prefix, limit } });
+    return response.data;
+  },
+
   searchProducts: async (search) => {
     const response = await API.get('/products', { params: { search } });
     return response.data;
@@ -26,6 +36,11 @@ export const productService = {
   sortProducts: async (sortBy, order) => {
     const response = await API.get('/products', { params: { sortBy, order } });
     return response.data;
+  },
+
+  getProductPage: async (sortBy, order, limit, after) => {
+    const response = await API.get('/products', { params: { sortBy, order, limit, after } });
+    return response.data;
   }
 };
 
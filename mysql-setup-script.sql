@@ -77,7 +77,8 @@ CREATE TABLE orders (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES accounts(id) ON DELETE CASCADE,
     INDEX idx_user_id (user_id),
-    INDEX idx_order_date (order_date)
+    INDEX idx_order_date (order_date),
+    INDEX idx_user_order_date (user_id, order_date, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- =====================================================
@@ -96,6 +97,33 @@ CREATE TABLE order_items (
     INDEX idx_product_id (product_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =====================================================
+-- Table 6: Id Generators (pooled ids for orders and order_items)
+-- =====================================================
+CREATE TABLE id_generators (
+    name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seeded one allocation block past the current maximum so ids never collide
+-- with existing rows. This script drops the database; to add the table to an
+-- existing one instead, run mysql-upgrade-id-generators.sql
+INSERT INTO id_generators (name, next_val) SELECT 'orders', COALESCE(MAX(id), 0) + 51 FROM orders;
+INSERT INTO id_generators (name, next_val) SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM order_items;
+
+-- =====================================================
+-- Table 7: Idempotency Keys (optional, order.idempotency.persist)
+-- =====================================================
+CREATE TABLE idempotency_keys (
+    user_id BIGINT NOT NULL,
+    idem_key VARCHAR(255) NOT NULL,
+    fingerprint CHAR(64) NOT NULL,
+    response TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, idem_key),
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =====================================================
 -- INSERT SAMPLE DATA
 -- =====================================================
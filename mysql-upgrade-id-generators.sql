@@ -0,0 +1,23 @@
+-- =====================================================
+-- Upgrade: pooled ids for orders and order_items
+-- For a database created by an earlier mysql-setup-script.sql. Unlike the
+-- setup script this drops nothing, and it is safe to run more than once.
+-- Stop the application first, so no order is inserted while ids are seeded.
+-- =====================================================
+
+USE ecommerce_db;
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- One allocation block (50) past the current maximum so new ids never collide
+-- with existing rows; a generator that is already further ahead is left alone
+INSERT INTO id_generators (name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 51 FROM orders
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM order_items
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -0,0 +1,94 @@
+package com.ramya.ecomerce.benchmark;
+
+import com.ramya.ecomerce.EcommerceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the application against a fresh in-memory H2 database in MySQL mode
+ * and seeds it with generated catalog and cart data.
+ */
+final class BenchmarkDatabase {
+
+    static final long BENCHMARK_USER_ID = 1L;
+
+    private static final int INSERT_BATCH = 10_000;
+
+    // Enough that order benchmarks never run a product out of stock
+    static final int SEEDED_STOCK = 1_000_000_000;
+
+    private static final String[] WORDS = {
+        "wireless", "usb", "cable", "mouse", "keyboard", "stand", "lamp", "desk",
+        "phone", "case", "charger", "hub", "screen", "laptop", "headphones", "protector"
+    };
+    private static final String[] CATEGORIES = {"Electronics", "Accessories", "Office", "Audio", "Storage"};
+
+    private BenchmarkDatabase() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        // A unique database per trial so catalog sizes never share rows
+        String url = "jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new SpringApplicationBuilder(EcommerceApplication.class)
+            .properties(
+                "spring.datasource.url=" + url,
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=none",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.sql.init.mode=always",
+                "spring.sql.init.schema-locations=classpath:benchmark-schema.sql",
+                "catalog.refresh-interval-ms=3600000",
+                "server.port=0",
+                "logging.level.root=WARN")
+            .run();
+    }
+
+    static void seedProducts(JdbcTemplate jdbc, int count) {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = "Generated " + WORDS[random.nextInt(WORDS.length)] + " for benchmarking";
+            batch.add(new Object[] {
+                name,
+                random.nextInt(50_000) / 100.0,
+                random.nextInt(51) / 10.0,
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                description,
+                SEEDED_STOCK
+            });
+            if (batch.size() == INSERT_BATCH) {
+                insertProducts(jdbc, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertProducts(jdbc, batch);
+        }
+    }
+
+    static void seedAccount(JdbcTemplate jdbc, long userId) {
+        jdbc.update("INSERT INTO accounts (id, first_name, last_name, email, password) VALUES (?, ?, ?, ?, ?)",
+            userId, "Bench", "User", "bench" + userId + "@example.com", "password");
+    }
+
+    static void seedCart(JdbcTemplate jdbc, long userId, int lines) {
+        List<Long> productIds = jdbc.queryForList("SELECT id FROM products ORDER BY id LIMIT ?", Long.class, lines);
+        List<Object[]> batch = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            batch.add(new Object[] {userId, productId, 1});
+        }
+        jdbc.batchUpdate("INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?)", batch);
+    }
+
+    private static void insertProducts(JdbcTemplate jdbc, List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO products (name, price, rating, category, description, stock) VALUES (?, ?, ?, ?, ?, ?)",
+            batch);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ramya.ecomerce.benchmark;
+
+import com.ramya.ecomerce.entity.Product;
+import com.ramya.ecomerce.repository.ProductRepository;
+import com.ramya.ecomerce.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog read paths, with the in-memory implementations next to the JPQL
+ * queries they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.seedProducts(context.getBean(JdbcTemplate.class), catalogSize);
+
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productService.reloadCatalog();
+        products = productService.getAllProducts();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> sortProducts() {
+        return productService.sortProducts(products, "price", "asc");
+    }
+
+    @Benchmark
+    public List<Product> searchProducts() {
+        return productService.searchProducts("wireless");
+    }
+
+    @Benchmark
+    public List<Product> searchProductsJpql() {
+        return productRepository.searchProducts("wireless");
+    }
+
+    @Benchmark
+    public List<Product> filterProducts() {
+        return productService.filterProducts(20.0, 50.0, 4.0, 5.0);
+    }
+
+    @Benchmark
+    public List<Product> filterProductsJpql() {
+        return productRepository.filterProducts(20.0, 50.0, 4.0, 5.0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ramya.ecomerce.benchmark;
+
+import com.ramya.ecomerce.dto.CartItemDTO;
+import com.ramya.ecomerce.dto.CartView;
+import com.ramya.ecomerce.dto.OrderRequest;
+import com.ramya.ecomerce.dto.OrderResponse;
+import com.ramya.ecomerce.service.CartService;
+import com.ramya.ecomerce.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart read and order placement. The cart is read for one seeded user; orders
+ * are placed for a second user whose cart stays empty, so every invocation
+ * does the same amount of work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckoutBenchmark {
+
+    private static final long ORDERING_USER_ID = 2L;
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    @Param({"1", "20", "100"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private OrderService orderService;
+    private OrderRequest orderRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkDatabase.seedProducts(jdbc, catalogSize);
+        BenchmarkDatabase.seedAccount(jdbc, BenchmarkDatabase.BENCHMARK_USER_ID);
+        BenchmarkDatabase.seedAccount(jdbc, ORDERING_USER_ID);
+        BenchmarkDatabase.seedCart(jdbc, BenchmarkDatabase.BENCHMARK_USER_ID, cartSize);
+
+        cartService = context.getBean(CartService.class);
+        orderService = context.getBean(OrderService.class);
+
+        List<CartItemDTO> items = cartService.getCartItems(BenchmarkDatabase.BENCHMARK_USER_ID);
+        orderRequest = new OrderRequest(items, "1 Benchmark Way", "4111111111111111", "Bench User", "12/30", "123", "US");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CartItemDTO> getCartItems() {
+        return cartService.getCartItems(BenchmarkDatabase.BENCHMARK_USER_ID);
+    }
+
+    @Benchmark
+    public CartView getCartView() {
+        return cartService.getCartView(BenchmarkDatabase.BENCHMARK_USER_ID);
+    }
+
+    @Benchmark
+    public OrderResponse placeOrder() {
+        return orderService.placeOrder(ORDERING_USER_ID, orderRequest);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ramya.ecomerce.benchmark;
+
+import com.ramya.ecomerce.service.InventoryReservations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hundreds of threads checking out the same product. The in-memory
+ * reservation is measured next to the conditional row UPDATE it replaces,
+ * and against a sold-out product, where every attempt must fail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(256)
+public class InventoryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private InventoryReservations inventoryReservations;
+    private long hotProductId;
+    private long soldOutProductId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkDatabase.seedProducts(jdbc, 2);
+        hotProductId = jdbc.queryForObject("SELECT MIN(id) FROM products", Long.class);
+        soldOutProductId = jdbc.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        jdbc.update("UPDATE products SET stock = 0 WHERE id = ?", soldOutProductId);
+
+        inventoryReservations = context.getBean(InventoryReservations.class);
+        inventoryReservations.tryReserve(hotProductId, 1);
+        inventoryReservations.tryReserve(soldOutProductId, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Released again so the product never sells out however long the run
+    @Benchmark
+    public boolean reserveHotProduct() {
+        boolean reserved = inventoryReservations.tryReserve(hotProductId, 1);
+        if (reserved) {
+            inventoryReservations.release(hotProductId, 1);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean reserveSoldOutProduct() {
+        return inventoryReservations.tryReserve(soldOutProductId, 1);
+    }
+
+    @Benchmark
+    public int rowLockUpdate() {
+        return jdbc.update("UPDATE products SET stock = stock - 1 WHERE id = ? AND stock >= 1", hotProductId);
+    }
+}
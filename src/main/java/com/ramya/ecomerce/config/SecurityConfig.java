@@ -20,7 +20,7 @@ public class SecurityConfig {
     private static final String[] ALLOWED_ORIGINS = {"http://localhost:3000", "http://localhost:5173"};
     private static final String[] ALLOWED_METHODS = {"GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "HEAD"};
     private static final String[] ALLOWED_HEADERS = {"*"};
-    private static final String[] EXPOSED_HEADERS = {"Authorization", "Content-Type", "X-Total-Count"};
+    private static final String[] EXPOSED_HEADERS = {"Authorization", "Content-Type", "X-Total-Count", "ETag"};
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
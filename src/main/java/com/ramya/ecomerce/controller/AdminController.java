@@ -0,0 +1,186 @@
+package com.ramya.ecomerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramya.ecomerce.dto.ProductSales;
+import com.ramya.ecomerce.service.AbandonedCartSweeper;
+import com.ramya.ecomerce.service.JwtService;
+import com.ramya.ecomerce.service.OrderExportService;
+import com.ramya.ecomerce.service.SalesAnalytics;
+import com.ramya.ecomerce.service.TaxRateTable;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TaxRateTable taxRateTable;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private AbandonedCartSweeper cartSweeper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Accounts allowed to call the admin endpoints
+    @Value("${admin.user-ids:}")
+    private List<Long> adminUserIds;
+
+    // An export can run far longer than the default async request timeout, which stays in force elsewhere
+    @Value("${admin.export.timeout-ms:3600000}")
+    private long exportTimeoutMillis;
+
+    @PostMapping("/tax-rates/reload")
+    public ResponseEntity<?> reloadTaxRates(@RequestHeader(value = "Authorization", required = false) String token) {
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+
+            int count = taxRateTable.reload();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Tax rates reloaded");
+            response.put("count", count);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage() != null ? e.getMessage() : "An error occurred while reloading tax rates");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    // Served from the last published top-N lists; never queries order_items
+    @GetMapping("/analytics/top-products")
+    public ResponseEntity<?> getTopProducts(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam(defaultValue = SalesAnalytics.HOUR) String window,
+            @RequestParam(defaultValue = SalesAnalytics.BY_UNITS) String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+
+            List<ProductSales> products = salesAnalytics.getTopProducts(window, by, limit);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("window", window);
+            response.put("by", by);
+            response.put("generatedAt", salesAnalytics.getGeneratedAt());
+            response.put("products", products);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage() != null ? e.getMessage() : "An error occurred while fetching sales");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/analytics/stats")
+    public ResponseEntity<?> getAnalyticsStats(@RequestHeader(value = "Authorization", required = false) String token) {
+        ResponseEntity<?> denied = checkAdmin(token);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(salesAnalytics.getStats());
+    }
+
+    @GetMapping("/cart-sweeper/stats")
+    public ResponseEntity<?> getCartSweeperStats(@RequestHeader(value = "Authorization", required = false) String token) {
+        ResponseEntity<?> denied = checkAdmin(token);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(cartSweeper.getStats());
+    }
+
+    /**
+     * Streams orders with their line items, one JSON object per line or one
+     * CSV row per item, optionally limited to order dates in [from, to).
+     * The rows are written by an async task carrying its own timeout.
+     */
+    @GetMapping("/orders/export")
+    public WebAsyncTask<Void> exportOrders(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam(defaultValue = OrderExportService.NDJSON) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        ResponseEntity<?> denied = checkAdmin(token);
+        if (denied != null) {
+            writeJson(response, denied.getStatusCode().value(), denied.getBody());
+            return null;
+        }
+        if (!OrderExportService.isSupportedFormat(format)) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "format must be ndjson or csv");
+            writeJson(response, HttpStatus.BAD_REQUEST.value(), errorResponse);
+            return null;
+        }
+
+        boolean csv = OrderExportService.CSV.equals(format);
+        String filename = "orders-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            orderExportService.export(format, from, to, response.getOutputStream());
+            return null;
+        });
+    }
+
+    // The export writes its own response, so its errors are written the same way
+    private void writeJson(HttpServletResponse response, int status, Object body) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private ResponseEntity<?> checkAdmin(String token) {
+        if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Invalid or missing token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+
+        String jwtToken = token.substring(7);
+        if (!jwtService.validateToken(jwtToken)) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+
+        if (!adminUserIds.contains(jwtService.getUserIdFromToken(jwtToken))) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Admin access required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        }
+        return null;
+    }
+}
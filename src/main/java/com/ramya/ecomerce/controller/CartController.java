@@ -1,7 +1,9 @@
 package com.ramya.ecomerce.controller;
 
-import com.ramya.ecomerce.dto.CartItemDTO;
+import com.ramya.ecomerce.dto.CartBulkItemResult;
+import com.ramya.ecomerce.dto.CartBulkRequest;
 import com.ramya.ecomerce.dto.CartRequest;
+import com.ramya.ecomerce.dto.CartView;
 import com.ramya.ecomerce.entity.Cart;
 import com.ramya.ecomerce.service.CartService;
 import com.ramya.ecomerce.service.JwtService;
@@ -52,6 +54,33 @@ public class CartController {
         }
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addToCartBulk(
+            @RequestHeader("Authorization") String token,
+            @Valid @RequestBody CartBulkRequest request) {
+        try {
+            if (token == null || !token.startsWith("Bearer ")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            String jwtToken = token.substring(7);
+            if (!jwtService.validateToken(jwtToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            Long userId = jwtService.getUserIdFromToken(jwtToken);
+            List<CartBulkItemResult> results = cartService.addToCartBulk(userId, request.getItems());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", results.stream().allMatch(CartBulkItemResult::getSuccess));
+            response.put("results", results);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getCartItems(@RequestHeader("Authorization") String token) {
         try {
@@ -65,12 +94,11 @@ public class CartController {
             }
 
             Long userId = jwtService.getUserIdFromToken(jwtToken);
-            List<CartItemDTO> items = cartService.getCartItems(userId);
-            Double total = cartService.getCartTotal(userId);
+            CartView cart = cartService.getCartView(userId);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("items", items);
-            response.put("total", total);
+            response.put("items", cart.getItems());
+            response.put("total", cart.getTotal());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -104,4 +132,3 @@ public class CartController {
         }
     }
 }
-
@@ -1,15 +1,22 @@
 package com.ramya.ecomerce.controller;
 
+import com.ramya.ecomerce.dto.CartItemDTO;
+import com.ramya.ecomerce.dto.CheckoutStatus;
+import com.ramya.ecomerce.dto.OrderHistoryPage;
 import com.ramya.ecomerce.dto.OrderRequest;
 import com.ramya.ecomerce.dto.OrderResponse;
 import com.ramya.ecomerce.entity.Order;
+import com.ramya.ecomerce.service.AsyncCheckoutService;
+import com.ramya.ecomerce.service.IdempotencyKeys;
 import com.ramya.ecomerce.service.OrderService;
 import com.ramya.ecomerce.service.JwtService;
+import com.ramya.ecomerce.service.RetryLaterException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,9 +31,16 @@ public class OrderController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private IdempotencyKeys idempotencyKeys;
+
     @PostMapping
     public ResponseEntity<?> placeOrder(
             @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody OrderRequest request) {
         try {
             if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
@@ -43,9 +57,30 @@ public class OrderController {
             }
 
             Long userId = jwtService.getUserIdFromToken(jwtToken);
-            OrderResponse response = orderService.placeOrder(userId, request);
+            if (asyncCheckoutService.isEnabled()) {
+                String reference = idempotencyKey == null
+                    ? asyncCheckoutService.submit(userId, request)
+                    : idempotencyKeys.execute(userId, idempotencyKey, fingerprint(request), String.class,
+                        () -> asyncCheckoutService.submit(userId, request));
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("reference", reference);
+                response.put("status", AsyncCheckoutService.QUEUED);
+                response.put("statusUrl", "/api/order/status/" + reference);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
+            // A retried request with the same key gets the first attempt's order back
+            OrderResponse response = idempotencyKey == null
+                ? orderService.placeOrder(userId, request)
+                : idempotencyKeys.execute(userId, idempotencyKey, fingerprint(request), OrderResponse.class,
+                    () -> orderService.placeOrder(userId, request));
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RetryLaterException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", e.getMessage() != null ? e.getMessage() : "An error occurred while placing order");
@@ -84,6 +119,61 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/status/{reference}")
+    public ResponseEntity<?> getCheckoutStatus(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @PathVariable String reference) {
+        if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Invalid or missing token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+
+        String jwtToken = token.substring(7);
+        if (!jwtService.validateToken(jwtToken)) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+
+        CheckoutStatus status = asyncCheckoutService.getStatus(reference, jwtService.getUserIdFromToken(jwtToken));
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<?> getOrderHistory(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        try {
+            if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", "Invalid or missing token");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+            }
+
+            String jwtToken = token.substring(7);
+            if (!jwtService.validateToken(jwtToken)) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", "Invalid token");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+            }
+
+            Long userId = jwtService.getUserIdFromToken(jwtToken);
+            OrderHistoryPage page = orderService.getOrderHistory(userId, limit, after, summary);
+
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage() != null ? e.getMessage() : "An error occurred");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/tax-on-product/{country}")
     public ResponseEntity<?> getTaxRate(@PathVariable String country) {
         try {
@@ -101,5 +191,22 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
     }
-}
 
+    // What makes two submissions the same order; the card is represented by its last four digits only
+    private static String fingerprint(OrderRequest request) {
+        List<Object> fields = new ArrayList<>();
+        if (request.getItems() != null) {
+            for (CartItemDTO item : request.getItems()) {
+                fields.add(item.getProductId());
+                fields.add(item.getQuantity());
+                fields.add(item.getPrice());
+            }
+        }
+        String cardNumber = request.getCardNumber();
+        fields.add(cardNumber != null && cardNumber.length() >= 4 ? cardNumber.substring(cardNumber.length() - 4) : null);
+        fields.add(request.getCardHolderName());
+        fields.add(request.getDeliveryAddress());
+        fields.add(request.getCountry());
+        return IdempotencyKeys.fingerprint(fields);
+    }
+}
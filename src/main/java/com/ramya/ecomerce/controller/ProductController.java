@@ -1,11 +1,24 @@
 package com.ramya.ecomerce.controller;
 
+import com.ramya.ecomerce.dto.ProductBatchRequest;
+import com.ramya.ecomerce.dto.ProductQuery;
+import com.ramya.ecomerce.dto.ProductQueryResult;
+import com.ramya.ecomerce.dto.ProductSuggestion;
 import com.ramya.ecomerce.entity.Product;
+import com.ramya.ecomerce.service.CatalogSnapshot;
+import com.ramya.ecomerce.service.ProductResponseCache;
 import com.ramya.ecomerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -14,44 +27,149 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductResponseCache responseCache;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) Double minRating,
             @RequestParam(required = false) Double maxRating,
-            @RequestParam(required = false, defaultValue = "name") String sortBy,
-            @RequestParam(required = false, defaultValue = "asc") String order) {
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+
+        // Keyset pagination over the full catalog
+        if (limit != null && (search == null || search.isEmpty()) && (category == null || category.isEmpty())
+                && minPrice == null && maxPrice == null && minRating == null && maxRating == null) {
+            try {
+                return ResponseEntity.ok(productService.getProductPage(sortBy != null ? sortBy : "name", order, limit, after));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        }
 
-        List<Product> products;
+        // Repeat requests for the same catalog version are answered from already-encoded JSON
+        String cacheKey = ProductResponseCache.listingKey(request.getQueryString());
+        ProductResponseCache.CachedResponse cached = responseCache.get(cacheKey);
+        if (cached == null) {
+            long version = productService.getCatalogSnapshot().getVersion();
 
-        // Apply search first
-        if (search != null && !search.isEmpty()) {
-            products = productService.searchProducts(search);
+            // Search, filters and sort are planned together; any subset of bounds may be given
+            ProductQuery query = new ProductQuery(search, category, minPrice, maxPrice, minRating, maxRating,
+                sortBy, order, page, size);
+            ProductQueryResult result;
+            try {
+                result = productService.queryProducts(query);
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            cached = responseCache.put(version, cacheKey, size != null ? result : result.getItems());
         }
-        // Apply filters
-        else if (minPrice != null && maxPrice != null && minRating != null && maxRating != null) {
-            products = productService.filterProducts(minPrice, maxPrice, minRating, maxRating);
+        return cachedResponse(cached, ifNoneMatch);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Double maxRating,
+            @RequestParam(required = false) String category,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        String cacheKey = ProductResponseCache.facetsKey(request.getQueryString());
+        ProductResponseCache.CachedResponse cached = responseCache.get(cacheKey);
+        if (cached == null) {
+            long version = productService.getCatalogSnapshot().getVersion();
+            ProductQuery query = new ProductQuery(search, category, minPrice, maxPrice, minRating, maxRating,
+                null, null, null, null);
+            cached = responseCache.put(version, cacheKey, productService.getFacets(query));
         }
-        // Get all products
-        else {
-            products = productService.getAllProducts();
+        return cachedResponse(cached, ifNoneMatch);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String cacheKey = ProductResponseCache.productKey(id);
+        ProductResponseCache.CachedResponse cached = responseCache.get(cacheKey);
+        if (cached == null) {
+            long version = productService.getCatalogSnapshot().getVersion();
+            Product product = productService.getProductById(id);
+            if (product == null) {
+                return ResponseEntity.notFound().build();
+            }
+            cached = responseCache.put(version, cacheKey, product);
         }
+        return cachedResponse(cached, ifNoneMatch);
+    }
 
-        // Apply sorting
-        products = productService.sortProducts(products, sortBy, order);
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@Valid @RequestBody ProductBatchRequest request, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Validation failed");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
 
-        return ResponseEntity.ok(products);
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        if (product != null) {
-            return ResponseEntity.ok(product);
+    @GetMapping("/query-stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getQueryStats() {
+        return ResponseEntity.ok(productService.getQueryPlanStats());
+    }
+
+    @GetMapping("/catalog/status")
+    public ResponseEntity<Map<String, Object>> getCatalogStatus() {
+        CatalogSnapshot snapshot = productService.getCatalogSnapshot();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("version", snapshot.getVersion());
+        response.put("size", snapshot.size());
+        response.put("watermark", snapshot.getWatermark());
+        response.put("ageMillis", snapshot.getAgeMillis());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<?> cachedResponse(ProductResponseCache.CachedResponse cached, String ifNoneMatch) {
+        if (ProductResponseCache.matches(ifNoneMatch, cached.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.getEtag()).build();
         }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+            .eTag(cached.getEtag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(cached.getBody());
     }
 }
 
@@ -0,0 +1,15 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBulkItemResult {
+    private Long productId;
+    private Integer quantity;
+    private Boolean success;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.ramya.ecomerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBulkRequest {
+    @NotEmpty(message = "Items are required")
+    private List<@Valid CartRequest> items;
+}
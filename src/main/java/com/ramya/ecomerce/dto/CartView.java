@@ -0,0 +1,14 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartView {
+    private List<CartItemDTO> items;
+    private Double total;
+}
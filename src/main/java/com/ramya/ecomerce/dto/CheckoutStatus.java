@@ -0,0 +1,22 @@
+package com.ramya.ecomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutStatus {
+    private String reference;
+    private String status;
+    private OrderResponse order;
+    private String message;
+
+    @JsonIgnore
+    private Long userId;
+
+    @JsonIgnore
+    private long finishedAtMillis;
+}
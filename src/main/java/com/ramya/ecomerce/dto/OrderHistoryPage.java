@@ -0,0 +1,15 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryPage {
+    private List<OrderSummary> orders;
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.ramya.ecomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemView {
+    @JsonIgnore
+    private Long orderId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private Double unitPrice;
+}
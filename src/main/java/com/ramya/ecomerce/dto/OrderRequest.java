@@ -28,5 +28,8 @@ public class OrderRequest {
 
     @NotBlank(message = "CVV is required")
     private String cvv;
+
+    // Country or region code (US, US-CA) used for the tax rate; the default rate applies when absent
+    private String country;
 }
 
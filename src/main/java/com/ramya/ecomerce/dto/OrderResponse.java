@@ -18,5 +18,7 @@ public class OrderResponse {
     private LocalDateTime orderDate;
     private LocalDateTime expectedDeliveryDate;
     private String message;
+    // Lines whose client price was out of date and were charged at the current price
+    private List<Long> repricedProductIds;
 }
 
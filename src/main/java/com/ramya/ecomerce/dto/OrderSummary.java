@@ -0,0 +1,25 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private Double totalPrice;
+    private String deliveryAddress;
+    private String cardLastFour;
+    private List<OrderItemView> items;
+
+    // Used by the JPQL constructor projection; items are attached afterwards
+    public OrderSummary(Long orderId, LocalDateTime orderDate, Double totalPrice, String deliveryAddress,
+                        String cardLastFour) {
+        this(orderId, orderDate, totalPrice, deliveryAddress, cardLastFour, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    @NotEmpty(message = "Product IDs are required")
+    private List<Long> ids;
+}
@@ -0,0 +1,15 @@
+package com.ramya.ecomerce.dto;
+
+import com.ramya.ecomerce.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<Product> products;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,16 @@
+package com.ramya.ecomerce.dto;
+
+import com.ramya.ecomerce.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> items;
+    private String nextCursor;
+    private Boolean hasMore;
+}
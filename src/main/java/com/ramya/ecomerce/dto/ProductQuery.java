@@ -0,0 +1,21 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQuery {
+    private String search;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minRating;
+    private Double maxRating;
+    private String sortBy;
+    private String order;
+    private Integer page;
+    private Integer size;
+}
@@ -0,0 +1,19 @@
+package com.ramya.ecomerce.dto;
+
+import com.ramya.ecomerce.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQueryResult {
+    private List<Product> items;
+    private Integer page;
+    private Integer size;
+    private Boolean hasMore;
+    private String plan;
+    private Long elapsedMicros;
+}
@@ -0,0 +1,15 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSales {
+    private Long productId;
+    private String productName;
+    private Long units;
+    private Double revenue;
+}
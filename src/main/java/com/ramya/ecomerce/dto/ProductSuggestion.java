@@ -0,0 +1,14 @@
+package com.ramya.ecomerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+    private String text;
+    private String type;
+    private Long productId;
+}
@@ -13,8 +13,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
+    // Pooled table ids keep JDBC insert batching available, which IDENTITY turns off
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id")
+    @TableGenerator(name = "order_id", table = "id_generators", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, name = "user_id")
@@ -11,8 +11,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
+    // Pooled table ids keep JDBC insert batching available, which IDENTITY turns off
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id")
+    @TableGenerator(name = "order_item_id", table = "id_generators", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -1,9 +1,11 @@
 package com.ramya.ecomerce.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
@@ -35,5 +37,10 @@ public class Product {
 
     @Column(nullable = false)
     private Integer stock;
+
+    // Maintained by MySQL (ON UPDATE CURRENT_TIMESTAMP); the catalog refresh uses it to spot changed rows
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
 }
 
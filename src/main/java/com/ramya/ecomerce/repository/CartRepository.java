@@ -1,7 +1,10 @@
 package com.ramya.ecomerce.repository;
 
+import com.ramya.ecomerce.dto.CartItemDTO;
 import com.ramya.ecomerce.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +14,9 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     List<Cart> findByUserId(Long userId);
     Optional<Cart> findByUserIdAndProductId(Long userId, Long productId);
     void deleteByUserId(Long userId);
+
+    @Query("SELECT new com.ramya.ecomerce.dto.CartItemDTO(c.id, c.productId, c.quantity, p.price, p.name) "
+        + "FROM Cart c JOIN Product p ON p.id = c.productId WHERE c.userId = :userId ORDER BY c.id")
+    List<CartItemDTO> findCartItemsByUserId(@Param("userId") Long userId);
 }
 
@@ -1,12 +1,54 @@
 package com.ramya.ecomerce.repository;
 
+import com.ramya.ecomerce.dto.OrderItemView;
+import com.ramya.ecomerce.dto.OrderSummary;
 import com.ramya.ecomerce.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
-}
 
+    @Query("SELECT new com.ramya.ecomerce.dto.OrderSummary(o.id, o.orderDate, o.totalPrice, o.deliveryAddress, o.cardLastFour) "
+        + "FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ramya.ecomerce.dto.OrderSummary(o.id, o.orderDate, o.totalPrice, o.deliveryAddress, o.cardLastFour) "
+        + "FROM Order o WHERE o.userId = :userId "
+        + "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) "
+        + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findHistoryPageAfter(@Param("userId") Long userId, @Param("orderDate") LocalDateTime orderDate,
+                                            @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new com.ramya.ecomerce.dto.OrderItemView(i.order.id, i.productId, p.name, i.quantity, i.unitPrice) "
+        + "FROM OrderItem i JOIN Product p ON p.id = i.productId WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+    String STREAMING_FETCH_SIZE = "-2147483648";
+
+    /**
+     * Forward-only stream of orders with their items fetched in the same
+     * query. Rows are ordered by order id so each order's items arrive
+     * together. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items "
+        + "WHERE o.orderDate >= :from AND o.orderDate < :to ORDER BY o.id")
+    Stream<Order> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,12 +1,13 @@
 package com.ramya.ecomerce.repository;
 
 import com.ramya.ecomerce.entity.Product;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,5 +25,43 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                  @Param("maxPrice") Double maxPrice,
                                  @Param("minRating") Double minRating,
                                  @Param("maxRating") Double maxRating);
-}
 
+    // Keyset pages: callers pass PageRequest.of(0, limit) and the last row's (key, id) from the previous page
+    List<Product> findAllBy(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.price > :price OR (p.price = :price AND p.id > :id) ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageByPriceAscAfter(@Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.price < :price OR (p.price = :price AND p.id < :id) ORDER BY p.price DESC, p.id DESC")
+    List<Product> findPageByPriceDescAfter(@Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.rating > :rating OR (p.rating = :rating AND p.id > :id) ORDER BY p.rating ASC, p.id ASC")
+    List<Product> findPageByRatingAscAfter(@Param("rating") Double rating, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.rating < :rating OR (p.rating = :rating AND p.id < :id) ORDER BY p.rating DESC, p.id DESC")
+    List<Product> findPageByRatingDescAfter(@Param("rating") Double rating, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.name > :name OR (p.name = :name AND p.id > :id) ORDER BY p.name ASC, p.id ASC")
+    List<Product> findPageByNameAscAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.name < :name OR (p.name = :name AND p.id < :id) ORDER BY p.name DESC, p.id DESC")
+    List<Product> findPageByNameDescAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id ASC")
+    List<Product> findPageByIdAscAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.id < :id ORDER BY p.id DESC")
+    List<Product> findPageByIdDescAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT MAX(updated_at) FROM products", nativeQuery = true)
+    Timestamp findMaxUpdatedAt();
+
+    @Query(value = "SELECT * FROM products WHERE updated_at >= :since", nativeQuery = true)
+    List<Product> findUpdatedSince(@Param("since") Timestamp since);
+
+    @Query(value = "SELECT product_id, SUM(quantity) FROM order_items GROUP BY product_id", nativeQuery = true)
+    List<Object[]> sumQuantitySoldByProduct();
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
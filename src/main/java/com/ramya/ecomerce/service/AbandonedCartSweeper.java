@@ -0,0 +1,150 @@
+package com.ramya.ecomerce.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes abandoned carts: every row of a user whose cart has not been
+ * touched (cart.updated_at) for cart.sweeper.ttl-hours. Users are walked in
+ * user_id order in small batches, each batch its own short statement, with a
+ * pause in between so the sweep never holds locks for long or keeps a pool
+ * connection busy.
+ */
+@Service
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    // Keyset on user_id walks idx_user_id; a user qualifies only if none of their lines is recent
+    private static final String ABANDONED_USERS_SQL =
+        "SELECT user_id FROM cart WHERE user_id > :after "
+            + "GROUP BY user_id HAVING MAX(updated_at) < :cutoff "
+            + "ORDER BY user_id LIMIT :limit";
+
+    // The cutoff is checked again so a line added since the select survives
+    private static final String DELETE_SQL =
+        "DELETE FROM cart WHERE user_id IN (:userIds) AND updated_at < :cutoff";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private CartTotals cartTotals;
+
+    @Autowired
+    private WriteBehindCartStore cartStore;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.ttl-hours:720}")
+    private long ttlHours;
+
+    @Value("${cart.sweeper.batch-size:200}")
+    private int batchSize;
+
+    @Value("${cart.sweeper.pause-ms:200}")
+    private long pauseMillis;
+
+    private final LongAdder rowsRemoved = new LongAdder();
+    private final LongAdder usersRemoved = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+    private final LongAccumulator maxBatchNanos = new LongAccumulator(Math::max, 0L);
+    private final AtomicLong lastBatchMicros = new AtomicLong();
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(fixedDelayString = "${cart.sweeper.interval-ms:3600000}",
+        initialDelayString = "${cart.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofHours(ttlHours)));
+        long removedThisRun = 0;
+        long after = 0;
+
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                List<Long> userIds = namedParameterJdbcTemplate.queryForList(ABANDONED_USERS_SQL,
+                    new MapSqlParameterSource()
+                        .addValue("after", after)
+                        .addValue("cutoff", cutoff)
+                        .addValue("limit", batchSize),
+                    Long.class);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+
+                int removed = namedParameterJdbcTemplate.update(DELETE_SQL,
+                    new MapSqlParameterSource()
+                        .addValue("userIds", userIds)
+                        .addValue("cutoff", cutoff));
+                cartTotals.invalidate(userIds);
+                if (cartStore.isEnabled()) {
+                    cartStore.evict(userIds);
+                }
+
+                record(removed, userIds.size(), System.nanoTime() - start);
+                removedThisRun += removed;
+                after = userIds.get(userIds.size() - 1);
+
+                if (userIds.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunRows.set(removedThisRun);
+            lastRunAt = LocalDateTime.now();
+        }
+
+        if (removedThisRun > 0) {
+            log.info("Removed {} abandoned cart rows older than {}", removedThisRun, cutoff);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlHours", ttlHours);
+        stats.put("rowsRemoved", rowsRemoved.sum());
+        stats.put("usersRemoved", usersRemoved.sum());
+        stats.put("batches", batchCount);
+        stats.put("avgBatchMicros", batchCount == 0 ? 0 : batchNanos.sum() / batchCount / 1000);
+        stats.put("maxBatchMicros", maxBatchNanos.get() / 1000);
+        stats.put("lastBatchMicros", lastBatchMicros.get());
+        stats.put("lastRunRows", lastRunRows.get());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    private void record(int rows, int users, long elapsedNanos) {
+        rowsRemoved.add(rows);
+        usersRemoved.add(users);
+        batches.increment();
+        batchNanos.add(elapsedNanos);
+        maxBatchNanos.accumulate(elapsedNanos);
+        lastBatchMicros.set(elapsedNanos / 1000);
+    }
+}
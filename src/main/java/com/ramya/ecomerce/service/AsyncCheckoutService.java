@@ -0,0 +1,282 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.CheckoutStatus;
+import com.ramya.ecomerce.dto.OrderRequest;
+import com.ramya.ecomerce.dto.OrderResponse;
+import com.ramya.ecomerce.entity.Order;
+import com.ramya.ecomerce.entity.OrderItem;
+import com.ramya.ecomerce.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional asynchronous checkout (order.async.enabled). Requests are validated
+ * and built on the request thread, then handed to a bounded queue. A single
+ * consumer saves whatever has queued up, up to max-group-size orders, in one
+ * transaction and removes the ordered lines from the group's carts in one
+ * batch, so a burst of checkouts costs a handful of commits instead of one
+ * per order.
+ *
+ * Clients poll {@link #getStatus} with the returned reference; finished
+ * statuses are kept for status-ttl-ms.
+ */
+@Service
+public class AsyncCheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryReservations inventoryReservations;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${order.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${order.async.max-group-size:50}")
+    private int maxGroupSize;
+
+    @Value("${order.async.status-ttl-ms:600000}")
+    private long statusTtlMillis;
+
+    private BlockingQueue<PendingOrder> queue;
+    private final Map<String, CheckoutStatus> statuses = new ConcurrentHashMap<>();
+    private Thread consumer;
+    private volatile boolean running;
+
+    // Held across the running check and the offer, so nothing is queued after shutdown() stops the consumer
+    private final Object queueLock = new Object();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        consumer = new Thread(this::consume, "checkout-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the order and returns its reference. Fails fast with an
+     * RetryLaterException when the queue is full so callers can shed load.
+     * Stock is reserved here, so an out-of-stock order is rejected before it
+     * is queued.
+     */
+    public String submit(Long userId, OrderRequest request) {
+        PendingOrder pending = new PendingOrder(UUID.randomUUID().toString(), userId, request,
+            orderService.buildOrder(userId, request));
+        inventoryReservations.reserve(pending.order.getItems());
+        statuses.put(pending.reference, new CheckoutStatus(pending.reference, QUEUED, null, null, userId, 0L));
+        boolean accepted;
+        synchronized (queueLock) {
+            accepted = running && queue.offer(pending);
+        }
+        if (!accepted) {
+            statuses.remove(pending.reference);
+            inventoryReservations.release(pending.order.getItems());
+            throw new RetryLaterException("Checkout is busy, please try again");
+        }
+        return pending.reference;
+    }
+
+    // A reference only resolves for the user who placed the order
+    public CheckoutStatus getStatus(String reference, Long userId) {
+        CheckoutStatus status = statuses.get(reference);
+        return status != null && status.getUserId().equals(userId) ? status : null;
+    }
+
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void consume() {
+        List<PendingOrder> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Checkout consumer failed on a group of {} orders", group.size(), e);
+                abandon(group);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<PendingOrder> group) {
+        List<Order> orders = new ArrayList<>(group.size());
+        for (PendingOrder pending : group) {
+            orders.add(pending.order);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.saveAll(orders));
+        } catch (RuntimeException e) {
+            // One bad order must not sink the rest; retry each on its own to find it
+            log.warn("Group commit of {} orders failed, retrying individually", group.size(), e);
+            for (PendingOrder pending : group) {
+                commitAlone(pending);
+            }
+            return;
+        }
+        complete(group);
+    }
+
+    private void commitAlone(PendingOrder pending) {
+        try {
+            // Ids handed out to the rolled-back group are dropped so the order is persisted afresh
+            pending.order.setId(null);
+            pending.order.getItems().forEach(item -> item.setId(null));
+            transactionTemplate.executeWithoutResult(status -> orderRepository.save(pending.order));
+        } catch (RuntimeException e) {
+            inventoryReservations.release(pending.order.getItems());
+            statuses.put(pending.reference, new CheckoutStatus(pending.reference, FAILED, null,
+                e.getMessage() != null ? e.getMessage() : "An error occurred while placing order",
+                pending.userId, System.currentTimeMillis()));
+            return;
+        }
+        complete(List.of(pending));
+    }
+
+    /**
+     * Runs after the group has committed, so nothing here may fail an order:
+     * every order is marked COMPLETED first, then the side effects run, each
+     * with its failure logged and contained.
+     */
+    private void complete(List<PendingOrder> group) {
+        long now = System.currentTimeMillis();
+        for (PendingOrder pending : group) {
+            OrderResponse response = null;
+            try {
+                response = orderService.toResponse(pending.order, pending.request);
+            } catch (RuntimeException e) {
+                log.warn("Building the response for order {} failed", pending.order.getId(), e);
+            }
+            statuses.put(pending.reference, new CheckoutStatus(pending.reference, COMPLETED, response, null,
+                pending.userId, now));
+        }
+
+        Map<Long, Set<Long>> orderedLines = new LinkedHashMap<>();
+        for (PendingOrder pending : group) {
+            for (OrderItem item : pending.order.getItems()) {
+                orderedLines.computeIfAbsent(pending.userId, userId -> new HashSet<>()).add(item.getProductId());
+            }
+        }
+        try {
+            cartService.removeOrderedLines(orderedLines);
+        } catch (RuntimeException e) {
+            // A cart line left behind is swept later and must not fail the checkout
+            log.warn("Removing ordered lines from {} carts failed", orderedLines.size(), e);
+        }
+
+        for (PendingOrder pending : group) {
+            try {
+                salesAnalytics.record(pending.order);
+            } catch (RuntimeException e) {
+                log.warn("Recording order {} for analytics failed", pending.order.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Last resort for a group the consumer failed on outside the paths above.
+     * Whether its orders were saved is unknown, so their stock stays reserved
+     * and the client is pointed at the order history; giving them a finish
+     * time lets the statuses expire instead of reading QUEUED forever.
+     */
+    private void abandon(List<PendingOrder> group) {
+        long now = System.currentTimeMillis();
+        for (PendingOrder pending : group) {
+            statuses.computeIfPresent(pending.reference, (reference, status) -> QUEUED.equals(status.getStatus())
+                ? new CheckoutStatus(reference, FAILED, null, "Checkout status unknown, please check your orders",
+                    pending.userId, now)
+                : status);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.async.status-ttl-ms:600000}")
+    public void expireStatuses() {
+        long cutoff = System.currentTimeMillis() - statusTtlMillis;
+        statuses.values().removeIf(status -> status.getFinishedAtMillis() > 0 && status.getFinishedAtMillis() < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (consumer == null) {
+            return;
+        }
+        // Stop taking new orders, then let the consumer drain what was already accepted
+        synchronized (queueLock) {
+            running = false;
+        }
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private static final class PendingOrder {
+        private final String reference;
+        private final Long userId;
+        private final OrderRequest request;
+        private final Order order;
+
+        private PendingOrder(String reference, Long userId, OrderRequest request, Order order) {
+            this.reference = reference;
+            this.userId = userId;
+            this.request = request;
+            this.order = order;
+        }
+    }
+}
@@ -1,87 +1,303 @@
 package com.ramya.ecomerce.service;
 
+import com.ramya.ecomerce.dto.CartBulkItemResult;
 import com.ramya.ecomerce.dto.CartItemDTO;
 import com.ramya.ecomerce.dto.CartRequest;
+import com.ramya.ecomerce.dto.CartView;
 import com.ramya.ecomerce.entity.Cart;
 import com.ramya.ecomerce.entity.Product;
 import com.ramya.ecomerce.repository.CartRepository;
 import com.ramya.ecomerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CartService {
 
+    // LAST_INSERT_ID(id) makes the existing row's id come back as the generated key when the line is updated
+    private static final String UPSERT_SQL =
+        "INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id), quantity = quantity + ?";
+
+    private static final String BULK_UPSERT_SQL =
+        "INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+
     @Autowired
     private CartRepository cartRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WriteBehindCartStore cartStore;
+
+    @Autowired
+    private CartTotals cartTotals;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.max-bulk-size:100}")
+    private int maxBulkSize;
+
+    /**
+     * Adds to the user's line for the product in a single atomic upsert, so
+     * concurrent adds neither lose increments nor trip the unique key. The
+     * returned row carries its id; the new quantity is not read back.
+     */
     public Cart addToCart(Long userId, CartRequest request) {
-        Optional<Product> productOpt = productRepository.findById(request.getProductId());
-        if (productOpt.isEmpty()) {
+        PriceTable prices = productService.getPriceTable();
+        Double price = priceOf(prices, request.getProductId());
+        // Acknowledged from memory: the product is checked against the catalog snapshot, the row is written on flush
+        if (cartStore.isEnabled() && price == null) {
             throw new RuntimeException("Product not found");
         }
 
-        Optional<Cart> existingCart = cartRepository.findByUserIdAndProductId(userId, request.getProductId());
+        return cartTotals.locked(userId, () -> {
+            Cart cart = cartStore.isEnabled()
+                ? cartStore.add(userId, request.getProductId(), request.getQuantity())
+                : upsertLine(userId, request);
+            cartTotals.added(userId, request.getProductId(), request.getQuantity(), price, prices.getVersion());
+            return cart;
+        });
+    }
 
-        if (existingCart.isPresent()) {
-            Cart cart = existingCart.get();
-            cart.setQuantity(cart.getQuantity() + request.getQuantity());
-            return cartRepository.save(cart);
+    private Cart upsertLine(Long userId, CartRequest request) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(UPSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                statement.setLong(1, userId);
+                statement.setLong(2, request.getProductId());
+                statement.setInt(3, request.getQuantity());
+                statement.setInt(4, request.getQuantity());
+                return statement;
+            }, keyHolder);
+        } catch (DataIntegrityViolationException e) {
+            // The product foreign key is the existence check, so a missing product costs no extra query
+            throw new RuntimeException("Product not found");
         }
 
+        // On the update path the driver can report a phantom second key; the first is the row's id
+        Number cartId = (Number) keyHolder.getKeyList().get(0).values().iterator().next();
         Cart cart = new Cart();
+        cart.setId(cartId.longValue());
         cart.setUserId(userId);
         cart.setProductId(request.getProductId());
-        cart.setQuantity(request.getQuantity());
+        return cart;
+    }
+
+    /**
+     * Adds several items in one transaction: one query checks every product
+     * id, then all lines go out as a single JDBC batch of upserts. Results
+     * come back in request order; unknown products are reported rather than
+     * failing the whole request.
+     */
+    public List<CartBulkItemResult> addToCartBulk(Long userId, List<CartRequest> requests) {
+        if (requests.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " items can be added at once");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (CartRequest request : requests) {
+            productIds.add(request.getProductId());
+        }
+        Set<Long> existing = new HashSet<>(productRepository.findExistingIds(productIds));
+
+        // Repeated products are folded into one line so the batch never upserts the same row twice
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        List<CartBulkItemResult> results = new ArrayList<>(requests.size());
+        for (CartRequest request : requests) {
+            boolean found = existing.contains(request.getProductId());
+            if (found) {
+                quantities.merge(request.getProductId(), request.getQuantity(), Integer::sum);
+            }
+            results.add(new CartBulkItemResult(request.getProductId(), request.getQuantity(), found,
+                found ? "Product added to cart" : "Product not found"));
+        }
 
-        return cartRepository.save(cart);
+        if (quantities.isEmpty()) {
+            return results;
+        }
+        cartTotals.locked(userId, () -> {
+            if (cartStore.isEnabled()) {
+                quantities.forEach((productId, quantity) -> cartStore.add(userId, productId, quantity));
+            } else {
+                List<Object[]> rows = new ArrayList<>(quantities.size());
+                quantities.forEach((productId, quantity) -> rows.add(new Object[] {userId, productId, quantity}));
+                // Committed before the lock is released so a concurrent total recompute sees every line
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(BULK_UPSERT_SQL, rows));
+            }
+            PriceTable prices = productService.getPriceTable();
+            quantities.forEach((productId, quantity) ->
+                cartTotals.added(userId, productId, quantity, priceOf(prices, productId), prices.getVersion()));
+            return null;
+        });
+        return results;
     }
 
+    /**
+     * Cart rows whose product no longer exists drop out of the inner join, as
+     * they did before. Prices come from the catalog's price table, the same
+     * source adds and checkout use, so a recomputed total agrees with the
+     * incrementally adjusted one; the joined price is only the fallback for a
+     * product the snapshot does not have yet.
+     */
     public List<CartItemDTO> getCartItems(Long userId) {
-        List<Cart> carts = cartRepository.findByUserId(userId);
-        List<CartItemDTO> cartItems = new ArrayList<>();
-
-        for (Cart cart : carts) {
-            Optional<Product> productOpt = productRepository.findById(cart.getProductId());
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
-                CartItemDTO dto = new CartItemDTO(
-                    cart.getId(),
-                    cart.getProductId(),
-                    cart.getQuantity(),
-                    product.getPrice(),
-                    product.getName()
-                );
-                cartItems.add(dto);
+        if (cartStore.isEnabled()) {
+            return toCartItems(cartStore.findByUserId(userId));
+        }
+        List<CartItemDTO> items = cartRepository.findCartItemsByUserId(userId);
+        PriceTable prices = productService.getPriceTable();
+        for (CartItemDTO item : items) {
+            double price = prices.price(item.getProductId());
+            if (!Double.isNaN(price)) {
+                item.setPrice(price);
             }
         }
+        return items;
+    }
 
-        return cartItems;
+    /**
+     * Items from a single query and the total from {@link CartTotals}, so a
+     * cart page costs one round trip whatever the number of lines. The total
+     * is computed from the same items only when it is not cached.
+     */
+    public CartView getCartView(Long userId) {
+        Double total = cartTotals.get(userId);
+        if (total != null) {
+            return new CartView(getCartItems(userId), total);
+        }
+        return cartTotals.locked(userId, () -> {
+            // Read first: the items are priced from this table or a newer one
+            long pricedAt = productService.getPriceTable().getVersion();
+            List<CartItemDTO> items = getCartItems(userId);
+            return new CartView(items, cartTotals.store(userId, items, pricedAt));
+        });
     }
 
     public void removeFromCart(Long cartId) {
-        cartRepository.deleteById(cartId);
+        Cart line = cartStore.isEnabled()
+            ? cartStore.findById(cartId)
+            : cartRepository.findById(cartId).orElse(null);
+        if (line == null) {
+            return;
+        }
+
+        cartTotals.locked(line.getUserId(), () -> {
+            boolean removed = cartStore.isEnabled()
+                ? cartStore.remove(cartId)
+                : jdbcTemplate.update("DELETE FROM cart WHERE id = ?", cartId) > 0;
+            // A line deleted by someone else in the meantime was already taken off the total
+            if (removed) {
+                cartTotals.removed(line.getUserId(), line.getProductId());
+            }
+            return null;
+        });
     }
 
     public void clearCart(Long userId) {
-        cartRepository.deleteByUserId(userId);
+        cartTotals.locked(userId, () -> {
+            if (cartStore.isEnabled()) {
+                cartStore.clear(userId);
+            } else {
+                cartRepository.deleteByUserId(userId);
+            }
+            cartTotals.cleared(userId);
+            return null;
+        });
+    }
+
+    /**
+     * Takes each user's ordered products out of their cart, leaving lines
+     * added since the order was placed. Without write-behind this is one
+     * batched DELETE; cached totals are dropped afterwards rather than
+     * adjusted, which stays correct without holding every user's lock.
+     */
+    public void removeOrderedLines(Map<Long, Set<Long>> productIdsByUser) {
+        if (productIdsByUser.isEmpty()) {
+            return;
+        }
+        if (cartStore.isEnabled()) {
+            productIdsByUser.forEach((userId, productIds) -> cartTotals.locked(userId, () -> {
+                for (Long productId : productIds) {
+                    Cart line = cartStore.find(userId, productId);
+                    if (line != null && cartStore.remove(line.getId())) {
+                        cartTotals.removed(userId, productId);
+                    }
+                }
+                return null;
+            }));
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        productIdsByUser.forEach((userId, productIds) ->
+            productIds.forEach(productId -> rows.add(new Object[] {userId, productId})));
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate("DELETE FROM cart WHERE user_id = ? AND product_id = ?", rows));
+        cartTotals.invalidate(productIdsByUser.keySet());
     }
 
     public Cart findByUserIdAndProductId(Long userId, Long productId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.find(userId, productId);
+        }
         return cartRepository.findByUserIdAndProductId(userId, productId).orElse(null);
     }
 
     public Double getCartTotal(Long userId) {
-        List<CartItemDTO> items = getCartItems(userId);
-        return items.stream()
-            .mapToDouble(item -> item.getPrice() * item.getQuantity())
-            .sum();
+        Double total = cartTotals.get(userId);
+        if (total != null) {
+            return total;
+        }
+        return cartTotals.locked(userId, () -> {
+            long pricedAt = productService.getPriceTable().getVersion();
+            return cartTotals.store(userId, getCartItems(userId), pricedAt);
+        });
+    }
+
+    // Null when the product is not in the current catalog snapshot
+    private static Double priceOf(PriceTable prices, Long productId) {
+        double price = prices.price(productId);
+        return Double.isNaN(price) ? null : price;
+    }
+
+    private List<CartItemDTO> toCartItems(List<Cart> carts) {
+        List<CartItemDTO> cartItems = new ArrayList<>(carts.size());
+        for (Cart cart : carts) {
+            Product product = productService.getProductById(cart.getProductId());
+            if (product != null) {
+                cartItems.add(new CartItemDTO(
+                    cart.getId(),
+                    cart.getProductId(),
+                    cart.getQuantity(),
+                    product.getPrice(),
+                    product.getName()
+                ));
+            }
+        }
+        return cartItems;
     }
 }
 
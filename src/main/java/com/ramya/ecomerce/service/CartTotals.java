@@ -0,0 +1,207 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.CartItemDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cart totals kept in memory and adjusted as lines change, so a
+ * cached total is read in O(1). A reverse index from product id to the users
+ * whose cart holds it drops exactly the affected totals when a price changes.
+ *
+ * Writers hold the user's lock across the cart write and the adjustment, and
+ * a total is only recomputed under the same lock, so an adjustment can never
+ * be applied to a total that already includes it.
+ *
+ * Price changes arrive from the catalog refresh without any user's lock.
+ * Writers therefore pass the version of the price table they priced with and
+ * check it again once the user is indexed: a refresh that published before
+ * that check makes it fail, one that published after it finds the user in the
+ * index. Either way no total keeps an old price.
+ *
+ * At most cart.totals.max-entries totals are kept; the oldest are dropped
+ * periodically and recomputed on their next read.
+ */
+@Service
+public class CartTotals {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, Entry> totals = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> usersByProduct = new ConcurrentHashMap<>();
+    private final Queue<Entry> byAge = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Version of the last price table whose changes were applied here
+    private volatile long priceVersion;
+
+    @Value("${cart.totals.max-entries:100000}")
+    private int maxEntries;
+
+    public CartTotals() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T locked(Long userId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(Long.hashCode(userId), STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Double get(Long userId) {
+        Entry entry = totals.get(userId);
+        return entry != null ? entry.total : null;
+    }
+
+    /**
+     * Caches the total of freshly loaded items. Callers must hold the user's
+     * lock and have read the items under it, priced from a table no older
+     * than pricedAt.
+     */
+    public double store(Long userId, List<CartItemDTO> items, long pricedAt) {
+        Entry entry = new Entry(userId);
+        for (CartItemDTO item : items) {
+            double amount = item.getPrice() * item.getQuantity();
+            entry.total += amount;
+            entry.amounts.merge(item.getProductId(), amount, Double::sum);
+            index(userId, item.getProductId());
+        }
+        totals.put(userId, entry);
+        byAge.add(entry);
+        queued.incrementAndGet();
+        dropIfRepriced(userId, pricedAt);
+        return entry.total;
+    }
+
+    // The following adjust a cached total after a cart write; the caller holds the user's lock
+
+    public void added(Long userId, Long productId, int quantity, Double price, long pricedAt) {
+        Entry entry = totals.get(userId);
+        if (entry == null) {
+            return;
+        }
+        if (price == null) {
+            // Product not in the catalog snapshot yet, so recompute on the next read
+            totals.remove(userId);
+            return;
+        }
+        entry.total += price * quantity;
+        entry.amounts.merge(productId, price * quantity, Double::sum);
+        index(userId, productId);
+        dropIfRepriced(userId, pricedAt);
+    }
+
+    // Takes off exactly what the line contributed, whatever the product costs now
+    public void removed(Long userId, Long productId) {
+        Entry entry = totals.get(userId);
+        if (entry == null) {
+            return;
+        }
+        Double amount = entry.amounts.remove(productId);
+        if (amount == null) {
+            totals.remove(userId);
+            return;
+        }
+        // Reset once empty so rounding error from repeated adds and removes cannot linger
+        entry.total = entry.amounts.isEmpty() ? 0.0 : entry.total - amount;
+        unindex(userId, productId);
+    }
+
+    // Dropped rather than zeroed, so users who have checked out do not keep an entry each
+    public void cleared(Long userId) {
+        Entry entry = totals.remove(userId);
+        if (entry != null) {
+            entry.amounts.keySet().forEach(productId -> unindex(userId, productId));
+        }
+    }
+
+    public void onPricesChanged(long version, Collection<Long> productIds) {
+        // Published before the index is read, so a writer indexed too late for the loop sees the new version
+        priceVersion = version;
+        for (Long productId : productIds) {
+            Set<Long> users = usersByProduct.remove(productId);
+            if (users != null) {
+                users.forEach(totals::remove);
+            }
+        }
+    }
+
+    public void invalidate(Collection<Long> userIds) {
+        userIds.forEach(totals::remove);
+    }
+
+    public void invalidateAll(long version) {
+        priceVersion = version;
+        totals.clear();
+        usersByProduct.clear();
+    }
+
+    /**
+     * Drops the oldest totals until at most max-entries remain. Each is taken
+     * out under its user's lock, and only if it is still the user's current
+     * total, so its product index entries can be read safely.
+     */
+    @Scheduled(fixedDelayString = "${cart.totals.trim-interval-ms:60000}")
+    public void trim() {
+        while (queued.get() > maxEntries) {
+            Entry oldest = byAge.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            locked(oldest.userId, () -> {
+                if (totals.remove(oldest.userId, oldest)) {
+                    oldest.amounts.keySet().forEach(productId -> unindex(oldest.userId, productId));
+                }
+                return null;
+            });
+        }
+    }
+
+    // The caller priced from a table other than the last one applied, so its total may hold a superseded price
+    private void dropIfRepriced(Long userId, long pricedAt) {
+        if (pricedAt != priceVersion) {
+            totals.remove(userId);
+        }
+    }
+
+    private void index(Long userId, Long productId) {
+        usersByProduct.computeIfAbsent(productId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    private void unindex(Long userId, Long productId) {
+        usersByProduct.computeIfPresent(productId, (key, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private static final class Entry {
+        private final Long userId;
+        private volatile double total;
+        private final Map<Long, Double> amounts = new HashMap<>();
+
+        private Entry(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
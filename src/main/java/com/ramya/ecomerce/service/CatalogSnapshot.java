@@ -0,0 +1,174 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the product catalog. A refresh never modifies an existing
+ * snapshot; it builds a new one and publishes it, so readers holding the old
+ * reference keep a consistent view without locking.
+ */
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY =
+        new CatalogSnapshot(0L, new LinkedHashMap<>(), ProductSearchIndex.build(Collections.emptyList()), null, 0L);
+
+    private final long version;
+    private final Map<Long, Product> productsById;
+    private final List<Product> products;
+    private final ProductSearchIndex searchIndex;
+    private final ProductRangeIndex rangeIndex;
+    private final Map<String, int[]> categoryDocs;
+    private final ProductFacetIndex facetIndex;
+    private final PriceTable priceTable;
+    private final LocalDateTime watermark;
+    private final long loadedAtMillis;
+
+    private CatalogSnapshot(long version, LinkedHashMap<Long, Product> productsById, ProductSearchIndex searchIndex,
+                            LocalDateTime watermark, long loadedAtMillis) {
+        this(version, Collections.unmodifiableMap(productsById),
+            Collections.unmodifiableList(new ArrayList<>(productsById.values())), searchIndex,
+            ProductRangeIndex.build(productsById.values()), indexCategories(productsById.values()),
+            ProductFacetIndex.build(productsById.values()), PriceTable.of(version, productsById.values()),
+            watermark, loadedAtMillis);
+    }
+
+    private CatalogSnapshot(long version, Map<Long, Product> productsById, List<Product> products,
+                            ProductSearchIndex searchIndex, ProductRangeIndex rangeIndex,
+                            Map<String, int[]> categoryDocs, ProductFacetIndex facetIndex, PriceTable priceTable,
+                            LocalDateTime watermark, long loadedAtMillis) {
+        this.version = version;
+        this.productsById = productsById;
+        this.products = products;
+        this.searchIndex = searchIndex;
+        this.rangeIndex = rangeIndex;
+        this.categoryDocs = categoryDocs;
+        this.facetIndex = facetIndex;
+        this.priceTable = priceTable;
+        this.watermark = watermark;
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    public static CatalogSnapshot of(long version, Collection<Product> products, LocalDateTime watermark) {
+        LinkedHashMap<Long, Product> byId = sortedById(products);
+        return new CatalogSnapshot(version, byId, ProductSearchIndex.build(byId.values()), watermark,
+            System.currentTimeMillis());
+    }
+
+    /**
+     * Returns a new snapshot with the changed products merged in. This snapshot
+     * is left untouched.
+     */
+    public CatalogSnapshot merge(Collection<Product> changed, LocalDateTime newWatermark) {
+        LinkedHashMap<Long, Product> byId = new LinkedHashMap<>(productsById);
+        long lastId = products.isEmpty() ? Long.MIN_VALUE : products.get(products.size() - 1).getId();
+        boolean ascending = true;
+        for (Product product : changed) {
+            // New rows normally carry higher ids and can be appended; anything else needs a re-sort
+            if (!byId.containsKey(product.getId())) {
+                ascending &= product.getId() > lastId;
+                lastId = Math.max(lastId, product.getId());
+            }
+            byId.put(product.getId(), product);
+        }
+        if (!ascending) {
+            byId = sortedById(byId.values());
+        }
+        ProductSearchIndex nextIndex = searchIndex.withChanges(changed, byId.values());
+        return new CatalogSnapshot(version + 1, byId, nextIndex, newWatermark, System.currentTimeMillis());
+    }
+
+    /**
+     * Same snapshot contents with a fresh load time, used when a refresh finds
+     * nothing new so the age reflects the last successful check.
+     */
+    public CatalogSnapshot touch(LocalDateTime newWatermark) {
+        return new CatalogSnapshot(version, productsById, products, searchIndex, rangeIndex, categoryDocs, facetIndex,
+            priceTable, newWatermark, System.currentTimeMillis());
+    }
+
+    // Products are kept in id order so ordinals can be found by binary search on the id
+    private static LinkedHashMap<Long, Product> sortedById(Collection<Product> products) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(Product::getId));
+        LinkedHashMap<Long, Product> byId = new LinkedHashMap<>();
+        for (Product product : sorted) {
+            byId.put(product.getId(), product);
+        }
+        return byId;
+    }
+
+    private static Map<String, int[]> indexCategories(Collection<Product> products) {
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        int doc = 0;
+        for (Product product : products) {
+            grouped.computeIfAbsent(ProductSearchIndex.normalize(product.getCategory()), key -> new ArrayList<>()).add(doc++);
+        }
+        Map<String, int[]> categories = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : grouped.entrySet()) {
+            categories.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return Collections.unmodifiableMap(categories);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public Product getProduct(Long id) {
+        return productsById.get(id);
+    }
+
+    public ProductSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public ProductRangeIndex getRangeIndex() {
+        return rangeIndex;
+    }
+
+    /**
+     * Ordinals (positions in {@link #getProducts()}) of the products in the
+     * category, compared case-insensitively.
+     */
+    public int[] getCategoryDocs(String category) {
+        int[] docs = categoryDocs.get(ProductSearchIndex.normalize(category));
+        return docs != null ? docs : new int[0];
+    }
+
+    public ProductFacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+
+    public PriceTable getPriceTable() {
+        return priceTable;
+    }
+
+    public int size() {
+        return productsById.size();
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - loadedAtMillis;
+    }
+}
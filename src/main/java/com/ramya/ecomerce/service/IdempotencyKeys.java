@@ -0,0 +1,223 @@
+package com.ramya.ecomerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dedupe window for requests carrying an Idempotency-Key header. The first
+ * request with a key runs; duplicates that arrive while it is in flight wait
+ * on its future, and later ones get its stored result back without running
+ * again. Keys are scoped to the user and kept for order.idempotency.ttl-ms in
+ * a map of at most max-entries; every key has the same ttl, so a queue in
+ * insertion order is also the order they expire in and eviction only ever
+ * looks at its head. With order.idempotency.persist the result is
+ * also written to idempotency_keys so a retry after a restart is still caught.
+ *
+ * A failed attempt is forgotten, so the client can retry it with the same key.
+ */
+@Service
+public class IdempotencyKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeys.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.idempotency.ttl-ms:86400000}")
+    private long ttlMillis;
+
+    @Value("${order.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${order.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMillis;
+
+    @Value("${order.idempotency.persist:false}")
+    private boolean persist;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Entries in the order they were created; may hold ones already removed from the map
+    private final Queue<Entry> byAge = new ConcurrentLinkedQueue<>();
+
+    /**
+     * SHA-256 over the given request fields, each length-prefixed so no two
+     * different field lists encode alike. Callers pass the fields that make a
+     * request the same request and leave out secrets such as card numbers.
+     */
+    public static String fingerprint(List<?> fields) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object field : fields) {
+            String value = String.valueOf(field);
+            canonical.append(value.length()).append(':').append(value).append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Runs action once per (userId, key). The fingerprint, from
+     * {@link #fingerprint}, is compared so a key reused for a different
+     * request is refused instead of replaying an unrelated result.
+     */
+    public <T> T execute(Long userId, String key, String fingerprint, Class<T> resultType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = userId + ":" + key;
+        long now = System.currentTimeMillis();
+
+        Entry mine = new Entry(scopedKey, fingerprint, now + ttlMillis);
+        Entry entry = entries.compute(scopedKey, (k, existing) ->
+            existing != null && existing.expiresAt > now ? existing : mine);
+
+        if (entry != mine) {
+            checkFingerprint(entry.fingerprint, fingerprint);
+            return resultType.cast(await(entry.future));
+        }
+        byAge.add(mine);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+
+        try {
+            T result = persist ? loadPersisted(userId, key, fingerprint, resultType) : null;
+            if (result == null) {
+                result = action.get();
+                if (persist) {
+                    store(userId, key, fingerprint, result);
+                }
+            }
+            mine.future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Waiters see the same failure; the key is released so a later retry runs again
+            entries.remove(scopedKey, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        evict(now);
+        if (persist) {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                new Timestamp(now - ttlMillis));
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RetryLaterException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryLaterException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause()
+                : new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops entries from the old end of the queue while they are expired or
+     * the map is over max-entries. Stops at the first one still in flight,
+     * so the cost is the number of entries removed, not the map size.
+     */
+    private synchronized void evict(long now) {
+        Entry oldest;
+        while ((oldest = byAge.peek()) != null) {
+            if (entries.get(oldest.scopedKey) != oldest) {
+                // Already released after a failure or replaced once expired
+                byAge.poll();
+            } else if ((oldest.expiresAt <= now || entries.size() > maxEntries) && oldest.future.isDone()) {
+                entries.remove(oldest.scopedKey, oldest);
+                byAge.poll();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private <T> T loadPersisted(Long userId, String key, String fingerprint, Class<T> resultType) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT fingerprint, response FROM idempotency_keys WHERE user_id = ? AND idem_key = ? AND created_at >= ?",
+            userId, key, new Timestamp(System.currentTimeMillis() - ttlMillis));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        checkFingerprint((String) rows.get(0).get("fingerprint"), fingerprint);
+        try {
+            return objectMapper.readValue((String) rows.get(0).get("response"), resultType);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Stored response for Idempotency-Key could not be read", e);
+        }
+    }
+
+    private void store(Long userId, String key, String fingerprint, Object result) {
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (user_id, idem_key, fingerprint, response) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE fingerprint = VALUES(fingerprint), response = VALUES(response), "
+                    + "created_at = CURRENT_TIMESTAMP",
+                userId, key, fingerprint, objectMapper.writeValueAsString(result));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The request already succeeded; losing the durable copy only narrows the dedupe window
+            log.warn("Persisting Idempotency-Key {} for user {} failed", key, userId, e);
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final String scopedKey;
+        private final String fingerprint;
+        private final long expiresAt;
+
+        private Entry(String scopedKey, String fingerprint, long expiresAt) {
+            this.scopedKey = scopedKey;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
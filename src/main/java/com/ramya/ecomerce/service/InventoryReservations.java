@@ -0,0 +1,240 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.OrderItem;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters so checkouts of a popular product do not queue on
+ * its products row lock. Each product's available count is loaded from
+ * products.stock on first use and reserved with a compare-and-set loop that
+ * never takes it below zero. What has been sold is written back in one JDBC
+ * batch per reconcile interval, which also picks up stock changed outside
+ * this instance (restocks, other nodes) from the column.
+ */
+@Service
+public class InventoryReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservations.class);
+
+    private static final int LOAD_CHUNK = 1000;
+
+    /*
+     * Assigning updated_at to itself stops ON UPDATE CURRENT_TIMESTAMP from
+     * firing, so a sale does not look like a catalog change to the refresh.
+     * The stock floor is zero even if the row was lowered elsewhere meanwhile;
+     * the re-read that follows carries any difference back into the counter.
+     */
+    private static final String RECONCILE_SQL =
+        "UPDATE products SET stock = GREATEST(stock - ?, 0), updated_at = updated_at WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${inventory.reservations.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves every line of the order or none of them. Throws when a product
+     * is unknown or does not have enough stock left.
+     */
+    public void reserve(Collection<OrderItem> items) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> quantities = quantities(items);
+        load(quantities.keySet());
+
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                if (line.getValue() <= 0) {
+                    throw new RuntimeException("Invalid quantity for product " + line.getKey());
+                }
+                if (!tryReserve(line.getKey(), line.getValue())) {
+                    throw new RuntimeException("Insufficient stock for product " + line.getKey());
+                }
+                reserved.add(line);
+            }
+        } catch (RuntimeException e) {
+            // Whatever stopped the order (unknown product included), the lines already taken go back
+            rollback(reserved);
+            throw e;
+        }
+    }
+
+    // Returns stock taken by reserve() for an order that was not saved
+    public void release(Collection<OrderItem> items) {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<Long, Integer> line : quantities(items).entrySet()) {
+            release(line.getKey(), line.getValue());
+        }
+    }
+
+    /**
+     * Takes quantity units of one product if that many are available. Lock
+     * free: contending threads retry the compare-and-set instead of blocking,
+     * and a sold-out product fails on the first read.
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        Counter counter = counters.get(productId);
+        if (counter == null) {
+            load(List.of(productId));
+            counter = counters.get(productId);
+            if (counter == null) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        }
+        while (true) {
+            int available = counter.available.get();
+            if (available < quantity) {
+                return false;
+            }
+            if (counter.available.compareAndSet(available, available - quantity)) {
+                counter.unwritten.addAndGet(quantity);
+                return true;
+            }
+        }
+    }
+
+    public void release(Long productId, int quantity) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            counter.available.addAndGet(quantity);
+            counter.unwritten.addAndGet(-quantity);
+        }
+    }
+
+    public Integer getAvailable(Long productId) {
+        Counter counter = counters.get(productId);
+        return counter != null ? counter.available.get() : null;
+    }
+
+    /**
+     * Writes the units sold since the last run to products.stock in one batch,
+     * then re-reads the column so changes made elsewhere are applied to the
+     * counters as a delta rather than overwriting reservations in flight.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservations.reconcile-interval-ms:1000}")
+    public synchronized void reconcile() {
+        if (!enabled || counters.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> sold = new LinkedHashMap<>();
+        counters.forEach((productId, counter) -> {
+            int units = counter.unwritten.getAndSet(0);
+            if (units != 0) {
+                sold.put(productId, units);
+            }
+        });
+
+        if (!sold.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(sold.size());
+            sold.forEach((productId, units) -> batch.add(new Object[] {units, productId}));
+            try {
+                jdbcTemplate.batchUpdate(RECONCILE_SQL, batch);
+            } catch (RuntimeException e) {
+                // Put the units back so the next run writes them
+                sold.forEach((productId, units) -> counters.get(productId).unwritten.addAndGet(units));
+                log.warn("Writing stock for {} products failed, will retry", sold.size(), e);
+                return;
+            }
+            sold.forEach((productId, units) -> counters.get(productId).stock -= units);
+        }
+
+        List<Long> productIds = new ArrayList<>(counters.keySet());
+        for (int from = 0; from < productIds.size(); from += LOAD_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + LOAD_CHUNK, productIds.size()));
+            for (Map<String, Object> row : selectStock(chunk)) {
+                Counter counter = counters.get(((Number) row.get("id")).longValue());
+                int stock = ((Number) row.get("stock")).intValue();
+                if (counter != null && stock != counter.stock) {
+                    counter.available.addAndGet(stock - counter.stock);
+                    counter.stock = stock;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcile();
+    }
+
+    private void load(Collection<Long> productIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!counters.containsKey(productId)) {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Map<String, Object> row : selectStock(missing)) {
+            Long productId = ((Number) row.get("id")).longValue();
+            // Another thread may have loaded it meanwhile; its counter already carries reservations
+            counters.putIfAbsent(productId, new Counter(((Number) row.get("stock")).intValue()));
+        }
+    }
+
+    private List<Map<String, Object>> selectStock(Collection<Long> productIds) {
+        return namedParameterJdbcTemplate.queryForList("SELECT id, stock FROM products WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", productIds));
+    }
+
+    private void rollback(List<Map.Entry<Long, Integer>> reserved) {
+        for (Map.Entry<Long, Integer> line : reserved) {
+            release(line.getKey(), line.getValue());
+        }
+    }
+
+    // Lines for the same product are summed so a split order cannot pass the check twice
+    private static Map<Long, Integer> quantities(Collection<OrderItem> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static final class Counter {
+        private final AtomicInteger available;
+        // Units reserved but not yet subtracted from products.stock
+        private final AtomicInteger unwritten = new AtomicInteger();
+        // products.stock as last written or read by reconcile()
+        private volatile int stock;
+
+        private Counter(int stock) {
+            this.available = new AtomicInteger(stock);
+            this.stock = stock;
+        }
+    }
+}
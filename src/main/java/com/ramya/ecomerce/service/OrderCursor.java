@@ -0,0 +1,48 @@
+package com.ramya.ecomerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's order history, which is ordered by
+ * (order_date, id) descending. Encoded as an opaque URL-safe token.
+ */
+public final class OrderCursor {
+
+    private final LocalDateTime orderDate;
+    private final Long id;
+
+    public OrderCursor(LocalDateTime orderDate, Long id) {
+        this.orderDate = orderDate;
+        this.id = id;
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
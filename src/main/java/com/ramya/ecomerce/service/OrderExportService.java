@@ -0,0 +1,159 @@
+package com.ramya.ecomerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ramya.ecomerce.entity.Order;
+import com.ramya.ecomerce.entity.OrderItem;
+import com.ramya.ecomerce.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes every order in a date range, with its line items, straight to an
+ * output stream. Orders are read through a forward-only streaming query and
+ * detached once written, so neither the result set nor the persistence
+ * context grows with the number of orders exported.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String CSV_HEADER =
+        "order_id,user_id,order_date,total_price,delivery_address,card_last_four,product_id,quantity,unit_price\n";
+
+    // Output is flushed to the client every this many orders
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static boolean isSupportedFormat(String format) {
+        return NDJSON.equals(format) || CSV.equals(format);
+    }
+
+    /**
+     * @param from inclusive lower bound on order_date, or null for no bound
+     * @param to exclusive upper bound on order_date, or null for no bound
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long export(String format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+        long start = System.currentTimeMillis();
+        long count;
+        try (Stream<Order> orders = orderRepository.streamForExport(
+                from != null ? from : EARLIEST, to != null ? to : LATEST)) {
+            count = NDJSON.equals(format)
+                ? writeNdjson(orders.iterator(), out)
+                : writeCsv(orders.iterator(), out);
+        }
+        log.info("Exported {} orders as {} in {} ms", count, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<Order> orders, OutputStream out) throws IOException {
+        long count = 0;
+        // One JSON object per line; the generator writes through without building a tree
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            json.writeStartObject();
+            json.writeNumberField("orderId", order.getId());
+            json.writeNumberField("userId", order.getUserId());
+            json.writeStringField("orderDate", String.valueOf(order.getOrderDate()));
+            json.writeNumberField("totalPrice", order.getTotalPrice());
+            json.writeStringField("deliveryAddress", order.getDeliveryAddress());
+            json.writeStringField("cardLastFour", order.getCardLastFour());
+            json.writeArrayFieldStart("items");
+            for (OrderItem item : order.getItems()) {
+                json.writeStartObject();
+                json.writeNumberField("productId", item.getProductId());
+                json.writeNumberField("quantity", item.getQuantity());
+                json.writeNumberField("unitPrice", item.getUnitPrice());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+
+            entityManager.detach(order);
+            if (++count % FLUSH_EVERY == 0) {
+                json.flush();
+            }
+        }
+        json.flush();
+        return count;
+    }
+
+    // One row per line item, the order's columns repeated; an order without items still gets a row
+    private long writeCsv(Iterator<Order> orders, OutputStream out) throws IOException {
+        long count = 0;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        csv.write(CSV_HEADER);
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            String orderColumns = order.getId() + "," + order.getUserId() + "," + order.getOrderDate() + ","
+                + number(order.getTotalPrice()) + "," + escape(order.getDeliveryAddress()) + ","
+                + escape(order.getCardLastFour()) + ",";
+            if (order.getItems().isEmpty()) {
+                csv.write(orderColumns + ",,\n");
+            }
+            for (OrderItem item : order.getItems()) {
+                csv.write(orderColumns + item.getProductId() + "," + item.getQuantity() + ","
+                    + number(item.getUnitPrice()) + "\n");
+            }
+
+            entityManager.detach(order);
+            if (++count % FLUSH_EVERY == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+        return count;
+    }
+
+    private static String number(Double value) {
+        return value != null ? String.format(Locale.ROOT, "%.2f", value) : "";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,16 +1,26 @@
 package com.ramya.ecomerce.service;
 
 import com.ramya.ecomerce.dto.CartItemDTO;
+import com.ramya.ecomerce.dto.OrderHistoryPage;
+import com.ramya.ecomerce.dto.OrderItemView;
 import com.ramya.ecomerce.dto.OrderRequest;
 import com.ramya.ecomerce.dto.OrderResponse;
+import com.ramya.ecomerce.dto.OrderSummary;
 import com.ramya.ecomerce.entity.Order;
 import com.ramya.ecomerce.entity.OrderItem;
+import com.ramya.ecomerce.entity.Product;
 import com.ramya.ecomerce.repository.OrderRepository;
+import com.ramya.ecomerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
@@ -21,22 +31,76 @@ public class OrderService {
     @Autowired
     private CartService cartService;
 
-    public static final double GST_RATE = 0.08; // 8% GST
+    @Autowired
+    private InventoryReservations inventoryReservations;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TaxRateTable taxRateTable;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Value("${order.history.max-page-size:50}")
+    private int maxHistoryPageSize;
+
+    @Value("${order.pricing.reject-stale-prices:false}")
+    private boolean rejectStalePrices;
+
+    public static final double GST_RATE = 0.08; // 8% GST, used where the tax rate table has no DEFAULT
+
+    // Client prices within half a cent of the current price are not reported as stale
+    private static final double PRICE_TOLERANCE = 0.005;
 
     public OrderResponse placeOrder(Long userId, OrderRequest request) {
+        Order order = buildOrder(userId, request);
+        inventoryReservations.reserve(order.getItems());
+
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            inventoryReservations.release(order.getItems());
+            throw e;
+        }
+        salesAnalytics.record(savedOrder);
+
+        // Clear user's cart
+        cartService.clearCart(userId);
+
+        return toResponse(savedOrder, request);
+    }
+
+    /**
+     * Validates the request and builds the unsaved order with its items. Every
+     * line is charged at the current catalog price, whatever the client sent;
+     * a stale client price either fails the order (order.pricing.reject-stale-prices)
+     * or is reported back by {@link #toResponse}.
+     */
+    Order buildOrder(Long userId, OrderRequest request) {
         List<CartItemDTO> items = request.getItems();
 
         if (items == null || items.isEmpty()) {
             throw new RuntimeException("Cart items are required");
         }
 
-        // Calculate total price
-        Double totalPrice = items.stream()
-            .mapToDouble(item -> item.getPrice() * item.getQuantity())
-            .sum();
+        double[] unitPrices = currentPrices(items);
 
-        Double taxAmount = totalPrice * GST_RATE;
-        Double grandTotal = totalPrice + taxAmount;
+        // Calculate total price
+        double totalPrice = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItemDTO item = items.get(i);
+            if (rejectStalePrices && isStale(item.getPrice(), unitPrices[i])) {
+                throw new RuntimeException("The price of " + describe(item) + " has changed to "
+                    + unitPrices[i] + ", please review your cart");
+            }
+            totalPrice += unitPrices[i] * item.getQuantity();
+        }
 
         // Create order
         Order order = new Order();
@@ -46,27 +110,99 @@ public class OrderService {
         order.setCardLastFour(request.getCardNumber().substring(request.getCardNumber().length() - 4));
         order.setTotalPrice(totalPrice);
 
-        // Create order items
+        // Create order items, in request order so toResponse can pair them up again
         List<OrderItem> orderItems = new ArrayList<>();
-        for (CartItemDTO item : items) {
+        for (int i = 0; i < items.size(); i++) {
+            CartItemDTO item = items.get(i);
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProductId(item.getProductId());
             orderItem.setQuantity(item.getQuantity());
-            orderItem.setUnitPrice(item.getPrice());
+            orderItem.setUnitPrice(unitPrices[i]);
             orderItems.add(orderItem);
         }
         order.setItems(orderItems);
+        return order;
+    }
 
-        Order savedOrder = orderRepository.save(order);
+    /**
+     * Checks every line has a product and a positive quantity, then returns
+     * its current unit price from the catalog's price table. Only
+     * products added since the last catalog refresh miss it, and those are
+     * read in one query.
+     */
+    private double[] currentPrices(List<CartItemDTO> items) {
+        PriceTable priceTable = productService.getPriceTable();
+        double[] prices = new double[items.size()];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Long productId = items.get(i).getProductId();
+            if (productId == null) {
+                throw new RuntimeException("Product id is required");
+            }
+            Integer quantity = items.get(i).getQuantity();
+            if (quantity == null || quantity < 1) {
+                throw new RuntimeException("Quantity must be greater than 0 for product " + productId);
+            }
+            prices[i] = priceTable.price(productId);
+            if (Double.isNaN(prices[i])) {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return prices;
+        }
 
-        // Clear user's cart
-        cartService.clearCart(userId);
+        Map<Long, Double> loaded = new HashMap<>();
+        for (Product product : productRepository.findAllById(missing)) {
+            if (product.getPrice() != null) {
+                loaded.put(product.getId(), product.getPrice());
+            }
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (Double.isNaN(prices[i])) {
+                Double price = loaded.get(items.get(i).getProductId());
+                if (price == null) {
+                    throw new RuntimeException("Product not found: " + items.get(i).getProductId());
+                }
+                prices[i] = price;
+            }
+        }
+        return prices;
+    }
+
+    private static boolean isStale(Double clientPrice, double unitPrice) {
+        return clientPrice == null || Math.abs(clientPrice - unitPrice) >= PRICE_TOLERANCE;
+    }
+
+    private static String describe(CartItemDTO item) {
+        return item.getProductName() != null ? item.getProductName() : "product " + item.getProductId();
+    }
+
+    OrderResponse toResponse(Order savedOrder, OrderRequest request) {
+        List<CartItemDTO> items = request.getItems();
+        Double totalPrice = savedOrder.getTotalPrice();
+        Double taxAmount = totalPrice * taxRateTable.getRate(request.getCountry());
+        Double grandTotal = totalPrice + taxAmount;
+
+        // Echo the lines at the prices actually charged and report any the client had stale
+        List<CartItemDTO> chargedItems = new ArrayList<>(items.size());
+        List<Long> repricedProductIds = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CartItemDTO item = items.get(i);
+            Double unitPrice = savedOrder.getItems().get(i).getUnitPrice();
+            if (isStale(item.getPrice(), unitPrice)) {
+                repricedProductIds.add(item.getProductId());
+            }
+            chargedItems.add(new CartItemDTO(item.getCartId(), item.getProductId(), item.getQuantity(), unitPrice,
+                item.getProductName()));
+        }
 
         // Create response
         OrderResponse response = new OrderResponse();
         response.setOrderId(savedOrder.getId());
-        response.setItems(items);
+        response.setItems(chargedItems);
+        response.setRepricedProductIds(repricedProductIds);
         response.setTotalPrice(totalPrice);
         response.setTaxAmount(taxAmount);
         response.setGrandTotal(grandTotal);
@@ -81,9 +217,51 @@ public class OrderService {
         return orderRepository.findByUserId(userId);
     }
 
+    /**
+     * One page of a user's orders, newest first, keyed on (order_date, id).
+     * Orders come from a DTO projection and the page's line items from one
+     * IN query, so the cost is two statements per page (one when
+     * summaryOnly) however long the history is.
+     */
+    public OrderHistoryPage getOrderHistory(Long userId, int limit, String after, boolean summaryOnly) {
+        int pageSize = Math.max(1, Math.min(limit, maxHistoryPageSize));
+        // One extra row tells us whether another page exists without a count query
+        Pageable window = PageRequest.of(0, pageSize + 1);
+
+        List<OrderSummary> orders;
+        if (after == null || after.isEmpty()) {
+            orders = orderRepository.findHistoryFirstPage(userId, window);
+        } else {
+            OrderCursor cursor = OrderCursor.decode(after);
+            orders = orderRepository.findHistoryPageAfter(userId, cursor.getOrderDate(), cursor.getId(), window);
+        }
+
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+        }
+
+        if (!summaryOnly && !orders.isEmpty()) {
+            Map<Long, OrderSummary> byId = new HashMap<>();
+            for (OrderSummary order : orders) {
+                order.setItems(new ArrayList<>());
+                byId.put(order.getOrderId(), order);
+            }
+            for (OrderItemView item : orderRepository.findItemViewsByOrderIds(byId.keySet())) {
+                byId.get(item.getOrderId()).getItems().add(item);
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+        }
+        return new OrderHistoryPage(orders, nextCursor, hasMore);
+    }
+
     public Double getTaxRate(String country) {
-        // For now, return 8% for all countries. Can be extended for different countries
-        return GST_RATE;
+        return taxRateTable.getRate(country);
     }
 }
 
@@ -0,0 +1,87 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Immutable product id to price map, built with each catalog snapshot and
+ * carrying its version. Ids and prices sit in two parallel primitive arrays
+ * with open addressing, so a lookup is a hash and a short probe with no
+ * boxing, and a million prices take about 32 MB instead of a map of nodes.
+ */
+public final class PriceTable {
+
+    public static final PriceTable EMPTY = of(0L, Collections.emptyList());
+
+    // Product ids come from an identity column and are never 0
+    private static final long FREE = 0L;
+
+    private final long version;
+    private final long[] ids;
+    private final double[] prices;
+    private final int mask;
+    private final int size;
+
+    private PriceTable(long version, long[] ids, double[] prices, int size) {
+        this.version = version;
+        this.ids = ids;
+        this.prices = prices;
+        this.mask = ids.length - 1;
+        this.size = size;
+    }
+
+    public static PriceTable of(long version, Collection<Product> products) {
+        // Kept at most half full so probes stay short
+        int capacity = Integer.highestOneBit(Math.max(2, products.size()) * 2 - 1) << 1;
+        long[] ids = new long[capacity];
+        double[] prices = new double[capacity];
+        int size = 0;
+        for (Product product : products) {
+            if (product.getId() == null || product.getPrice() == null) {
+                continue;
+            }
+            int slot = slot(ids, capacity - 1, product.getId());
+            if (ids[slot] == FREE) {
+                ids[slot] = product.getId();
+                size++;
+            }
+            prices[slot] = product.getPrice();
+        }
+        return new PriceTable(version, ids, prices, size);
+    }
+
+    /**
+     * @return the price, or NaN when the product is not in the table
+     */
+    public double price(long productId) {
+        int slot = slot(ids, mask, productId);
+        return ids[slot] == FREE ? Double.NaN : prices[slot];
+    }
+
+    public boolean contains(long productId) {
+        return ids[slot(ids, mask, productId)] != FREE;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // The slot holding the id, or the free slot where it would go
+    private static int slot(long[] ids, int mask, long id) {
+        int slot = mix(id) & mask;
+        while (ids[slot] != FREE && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
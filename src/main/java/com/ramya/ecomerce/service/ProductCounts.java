@@ -0,0 +1,106 @@
+package com.ramya.ecomerce.service;
+
+/**
+ * Units and revenue (in cents) per product id, in parallel primitive arrays
+ * with open addressing. Not thread safe; {@link SalesAnalytics} guards it.
+ */
+final class ProductCounts {
+
+    // Product ids come from an identity column and are never 0
+    private static final long FREE = 0L;
+
+    private long[] ids;
+    private long[] units;
+    private long[] cents;
+    private int size;
+
+    ProductCounts(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        ids = new long[capacity];
+        units = new long[capacity];
+        cents = new long[capacity];
+    }
+
+    void add(long productId, long unitCount, long centAmount) {
+        if ((size + 1) * 2 > ids.length) {
+            resize(ids.length * 2);
+        }
+        int slot = slot(ids, productId);
+        if (ids[slot] == FREE) {
+            ids[slot] = productId;
+            size++;
+        }
+        units[slot] += unitCount;
+        cents[slot] += centAmount;
+    }
+
+    boolean contains(long productId) {
+        return ids[slot(ids, productId)] != FREE;
+    }
+
+    // sign is 1 to add other's counts and -1 to take them away again
+    void addAll(ProductCounts other, int sign) {
+        for (int i = 0; i < other.ids.length; i++) {
+            if (other.ids[i] != FREE) {
+                add(other.ids[i], sign * other.units[i], sign * other.cents[i]);
+            }
+        }
+    }
+
+    /**
+     * Copy without the products whose counts have dropped back to zero, which
+     * a sliding total accumulates as old buckets are subtracted.
+     */
+    ProductCounts compact() {
+        ProductCounts copy = new ProductCounts(size);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != FREE && (units[i] != 0 || cents[i] != 0)) {
+                copy.add(ids[i], units[i], cents[i]);
+            }
+        }
+        return copy;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != FREE && (units[i] != 0 || cents[i] != 0)) {
+                visitor.accept(ids[i], units[i], cents[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        long[] oldUnits = units;
+        long[] oldCents = cents;
+        ids = new long[capacity];
+        units = new long[capacity];
+        cents = new long[capacity];
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != FREE) {
+                int slot = slot(ids, oldIds[i]);
+                ids[slot] = oldIds[i];
+                units[slot] = oldUnits[i];
+                cents[slot] = oldCents[i];
+            }
+        }
+    }
+
+    private static int slot(long[] ids, long id) {
+        int mask = ids.length - 1;
+        long h = id * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (ids[slot] != FREE && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    interface Visitor {
+        void accept(long productId, long units, long cents);
+    }
+}
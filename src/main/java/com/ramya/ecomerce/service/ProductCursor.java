@@ -0,0 +1,73 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a sorted product listing. Encoded as an opaque URL-safe
+ * token holding the sort, the last row's sort key and its id.
+ */
+public final class ProductCursor {
+
+    private final String sortBy;
+    private final String order;
+    private final Long id;
+    private final String key;
+
+    private ProductCursor(String sortBy, String order, Long id, String key) {
+        this.sortBy = sortBy;
+        this.order = order;
+        this.id = id;
+        this.key = key;
+    }
+
+    public static ProductCursor after(Product product, String sortBy, String order) {
+        String key;
+        if ("price".equals(sortBy)) {
+            key = String.valueOf(product.getPrice());
+        } else if ("rating".equals(sortBy)) {
+            key = String.valueOf(product.getRating());
+        } else if ("name".equals(sortBy)) {
+            key = product.getName();
+        } else {
+            key = "";
+        }
+        return new ProductCursor(sortBy, order, product.getId(), key);
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key goes last so names containing ':' survive the split
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ProductCursor(parts[0], parts[1], Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + ":" + order + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(String sortBy, String order) {
+        return this.sortBy.equals(sortBy) && this.order.equals(order);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Double getNumericKey() {
+        return Double.valueOf(key);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import org.roaringbitmap.RoaringBitmap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable per-facet bitmaps over catalog ordinals: one per category, price
+ * bucket and rating bucket. Counting a facet for a result set is a single
+ * bitmap AND-cardinality, so no rows are touched.
+ */
+public final class ProductFacetIndex {
+
+    private static final double[] PRICE_EDGES = {0, 10, 25, 50, 100, 250, 500};
+    private static final double[] RATING_EDGES = {0, 1, 2, 3, 4, 4.5};
+
+    private final long[] ids;
+    private final RoaringBitmap all;
+    private final Map<String, RoaringBitmap> categories;
+    private final RoaringBitmap[] priceBuckets;
+    private final RoaringBitmap[] ratingBuckets;
+
+    private ProductFacetIndex(long[] ids, RoaringBitmap all, Map<String, RoaringBitmap> categories,
+                              RoaringBitmap[] priceBuckets, RoaringBitmap[] ratingBuckets) {
+        this.ids = ids;
+        this.all = all;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+        this.ratingBuckets = ratingBuckets;
+    }
+
+    /**
+     * Builds the index. Products must be in ascending id order so ordinals can
+     * be found by binary search.
+     */
+    public static ProductFacetIndex build(Collection<Product> products) {
+        long[] ids = new long[products.size()];
+        RoaringBitmap all = new RoaringBitmap();
+        Map<String, RoaringBitmap> categories = new TreeMap<>();
+        RoaringBitmap[] priceBuckets = newBuckets(PRICE_EDGES.length);
+        RoaringBitmap[] ratingBuckets = newBuckets(RATING_EDGES.length);
+
+        int doc = 0;
+        for (Product product : products) {
+            ids[doc] = product.getId();
+            all.add(doc);
+            categories.computeIfAbsent(product.getCategory(), key -> new RoaringBitmap()).add(doc);
+            priceBuckets[bucket(PRICE_EDGES, product.getPrice())].add(doc);
+            ratingBuckets[bucket(RATING_EDGES, product.getRating())].add(doc);
+            doc++;
+        }
+
+        all.runOptimize();
+        categories.values().forEach(RoaringBitmap::runOptimize);
+        Arrays.stream(priceBuckets).forEach(RoaringBitmap::runOptimize);
+        Arrays.stream(ratingBuckets).forEach(RoaringBitmap::runOptimize);
+
+        return new ProductFacetIndex(ids, all, categories, priceBuckets, ratingBuckets);
+    }
+
+    /**
+     * Ordinals of the given products. Products not in this index are skipped.
+     */
+    public RoaringBitmap select(Collection<Product> products) {
+        RoaringBitmap selection = new RoaringBitmap();
+        for (Product product : products) {
+            int doc = Arrays.binarySearch(ids, product.getId());
+            if (doc >= 0) {
+                selection.add(doc);
+            }
+        }
+        return selection;
+    }
+
+    public RoaringBitmap all() {
+        return all;
+    }
+
+    public Map<String, Object> counts(RoaringBitmap selection) {
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        for (Map.Entry<String, RoaringBitmap> entry : categories.entrySet()) {
+            long count = RoaringBitmap.andCardinality(entry.getValue(), selection);
+            if (count > 0) {
+                categoryCounts.put(entry.getKey(), count);
+            }
+        }
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("total", selection.getLongCardinality());
+        facets.put("categories", categoryCounts);
+        facets.put("price", bucketCounts(PRICE_EDGES, priceBuckets, selection));
+        facets.put("rating", bucketCounts(RATING_EDGES, ratingBuckets, selection));
+        return facets;
+    }
+
+    private static List<Map<String, Object>> bucketCounts(double[] edges, RoaringBitmap[] buckets,
+                                                          RoaringBitmap selection) {
+        List<Map<String, Object>> counts = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("min", edges[i]);
+            bucket.put("max", i + 1 < edges.length ? edges[i + 1] : null);
+            bucket.put("count", RoaringBitmap.andCardinality(buckets[i], selection));
+            counts.add(bucket);
+        }
+        return counts;
+    }
+
+    // Bucket i covers [edges[i], edges[i + 1]); the last bucket is open-ended and values below zero land in the first
+    private static int bucket(double[] edges, double value) {
+        int bucket = 0;
+        while (bucket + 1 < edges.length && value >= edges[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static RoaringBitmap[] newBuckets(int count) {
+        RoaringBitmap[] buckets = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = new RoaringBitmap();
+        }
+        return buckets;
+    }
+}
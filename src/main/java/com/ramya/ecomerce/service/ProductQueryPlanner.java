@@ -0,0 +1,281 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.ProductQuery;
+import com.ramya.ecomerce.entity.Product;
+import org.roaringbitmap.BitSetUtil;
+import org.roaringbitmap.RoaringBitmap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a {@link ProductQuery} against one catalog snapshot.
+ *
+ * Predicate cardinalities come straight from the indexes (binary searches on
+ * the range columns, posting lengths for categories), so the planner can pick:
+ * <ul>
+ *   <li>SEARCH: the text index drives, other predicates filter candidates before scoring</li>
+ *   <li>SORTED_SCAN: walk the price or rating column in sort order and stop after one page</li>
+ *   <li>CATEGORY / RANGE: start from the most selective predicate, check the rest per row</li>
+ *   <li>FULL: no predicate, every product is a candidate</li>
+ *   <li>EMPTY: some predicate matches nothing, so nothing is evaluated</li>
+ * </ul>
+ * Sorted pages keep a bounded heap instead of sorting every match.
+ */
+public final class ProductQueryPlanner {
+
+    private final CatalogSnapshot catalog;
+    private final ProductQuery query;
+
+    private String plan;
+    private boolean hasMore;
+
+    public ProductQueryPlanner(CatalogSnapshot catalog, ProductQuery query) {
+        this.catalog = catalog;
+        this.query = query;
+    }
+
+    public List<Product> execute() {
+        String sortField = sortField();
+        boolean descending = "desc".equalsIgnoreCase(query.getOrder());
+        Comparator<Product> comparator = comparator(sortField, descending);
+
+        // A long, so a large page number cannot wrap around to a small or negative offset
+        long offset = query.getSize() != null ? (long) Math.max(0, pageNumber()) * query.getSize() : 0;
+        // One row past the page tells us whether another page exists; past int range means no limit
+        int wanted = query.getSize() != null
+            ? (int) Math.min(offset + query.getSize() + 1, Integer.MAX_VALUE)
+            : Integer.MAX_VALUE;
+
+        List<Product> matches;
+        if (hasSearch()) {
+            matches = catalog.getSearchIndex().search(query.getSearch(), residual(true, true, true));
+            plan = "SEARCH";
+            if (comparator != null) {
+                matches = topN(matches, comparator, wanted);
+                plan += sortSuffix(wanted);
+            }
+        } else {
+            matches = executeStructured(sortField, descending, comparator, wanted);
+        }
+
+        hasMore = matches.size() > offset + (query.getSize() != null ? query.getSize() : matches.size());
+        if (query.getSize() == null) {
+            return matches;
+        }
+        int from = (int) Math.min(offset, matches.size());
+        int to = (int) Math.min(offset + query.getSize(), matches.size());
+        return new ArrayList<>(matches.subList(from, to));
+    }
+
+    /**
+     * Ordinals of every product matching the query's search and filters, for
+     * facet counting; sort and paging are ignored. Range and category
+     * predicates are intersected as bitmaps straight from the indexes, so only
+     * a text search materializes products.
+     */
+    public RoaringBitmap matchingDocs() {
+        if (hasSearch()) {
+            plan = "SEARCH";
+            return catalog.getFacetIndex().select(
+                catalog.getSearchIndex().search(query.getSearch(), residual(true, true, true)));
+        }
+
+        boolean hasCategory = query.getCategory() != null && !query.getCategory().isEmpty();
+        boolean hasRange = query.getMinPrice() != null || query.getMaxPrice() != null
+            || query.getMinRating() != null || query.getMaxRating() != null;
+        RoaringBitmap docs = null;
+        if (hasRange) {
+            plan = "RANGE";
+            docs = BitSetUtil.bitmapOf(catalog.getRangeIndex().matching(query.getMinPrice(), query.getMaxPrice(),
+                query.getMinRating(), query.getMaxRating()).toLongArray());
+        }
+        if (hasCategory) {
+            RoaringBitmap inCategory = RoaringBitmap.bitmapOf(catalog.getCategoryDocs(query.getCategory()));
+            plan = docs == null ? "CATEGORY" : plan + "+CATEGORY";
+            docs = docs == null ? inCategory : RoaringBitmap.and(docs, inCategory);
+        }
+        if (docs == null) {
+            plan = "FULL";
+            return catalog.getFacetIndex().all();
+        }
+        return docs;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    private List<Product> executeStructured(String sortField, boolean descending, Comparator<Product> comparator,
+                                            int wanted) {
+        ProductRangeIndex range = catalog.getRangeIndex();
+        int total = Math.max(1, catalog.size());
+        boolean hasPrice = query.getMinPrice() != null || query.getMaxPrice() != null;
+        boolean hasRating = query.getMinRating() != null || query.getMaxRating() != null;
+        boolean hasCategory = query.getCategory() != null && !query.getCategory().isEmpty();
+
+        int priceCount = hasPrice ? range.countByPrice(query.getMinPrice(), query.getMaxPrice()) : total;
+        int ratingCount = hasRating ? range.countByRating(query.getMinRating(), query.getMaxRating()) : total;
+        int[] categoryDocs = hasCategory ? catalog.getCategoryDocs(query.getCategory()) : null;
+        int categoryCount = hasCategory ? categoryDocs.length : total;
+
+        // Predicates are treated as independent for the estimate
+        double selectivity = ((double) priceCount / total) * ((double) ratingCount / total) * ((double) categoryCount / total);
+        double expectedMatches = selectivity * total;
+        int driverCount = Math.min(priceCount, Math.min(ratingCount, categoryCount));
+
+        if (expectedMatches == 0) {
+            plan = "EMPTY";
+            return new ArrayList<>();
+        }
+
+        boolean sortsOnColumn = "price".equals(sortField) || "rating".equals(sortField);
+        if (sortsOnColumn && wanted != Integer.MAX_VALUE) {
+            boolean byPrice = "price".equals(sortField);
+            int columnCount = byPrice ? priceCount : ratingCount;
+            double residualSelectivity = columnCount == 0 ? 0 : expectedMatches / columnCount;
+            double scanCost = residualSelectivity == 0 ? 0 : Math.min(columnCount, wanted / residualSelectivity);
+            double driveCost = driverCount + expectedMatches * log2(wanted);
+
+            if (scanCost <= driveCost) {
+                plan = "SORTED_SCAN(" + sortField + ")";
+                return range.scan(byPrice,
+                    byPrice ? query.getMinPrice() : query.getMinRating(),
+                    byPrice ? query.getMaxPrice() : query.getMaxRating(),
+                    descending, residual(!byPrice && hasPrice, byPrice && hasRating, hasCategory), wanted);
+            }
+        }
+
+        List<Product> matches = new ArrayList<>();
+        if (hasCategory && categoryCount <= Math.min(priceCount, ratingCount)) {
+            plan = "CATEGORY";
+            Predicate<Product> rest = residual(hasPrice, hasRating, false);
+            for (int doc : categoryDocs) {
+                Product product = range.product(doc);
+                if (rest.test(product)) {
+                    matches.add(product);
+                }
+            }
+        } else if (hasPrice || hasRating) {
+            plan = "RANGE";
+            Predicate<Product> rest = residual(false, false, hasCategory);
+            BitSet docs = range.matching(query.getMinPrice(), query.getMaxPrice(),
+                query.getMinRating(), query.getMaxRating());
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                Product product = range.product(doc);
+                if (rest.test(product)) {
+                    matches.add(product);
+                }
+            }
+        } else {
+            plan = "FULL";
+            matches = catalog.getProducts();
+        }
+
+        if (comparator != null) {
+            matches = topN(matches, comparator, wanted);
+            plan += sortSuffix(wanted);
+        }
+        return matches;
+    }
+
+    private Predicate<Product> residual(boolean price, boolean rating, boolean category) {
+        Double minPrice = query.getMinPrice();
+        Double maxPrice = query.getMaxPrice();
+        Double minRating = query.getMinRating();
+        Double maxRating = query.getMaxRating();
+        String wantedCategory = query.getCategory();
+        boolean checkPrice = price && (minPrice != null || maxPrice != null);
+        boolean checkRating = rating && (minRating != null || maxRating != null);
+        boolean checkCategory = category && wantedCategory != null && !wantedCategory.isEmpty();
+
+        return product -> {
+            if (checkPrice && !within(product.getPrice(), minPrice, maxPrice)) {
+                return false;
+            }
+            if (checkRating && !within(product.getRating(), minRating, maxRating)) {
+                return false;
+            }
+            return !checkCategory || wantedCategory.equalsIgnoreCase(product.getCategory());
+        };
+    }
+
+    private static boolean within(double value, Double min, Double max) {
+        return (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    /**
+     * Smallest {@code limit} elements in comparator order. Uses a bounded
+     * max-heap when the limit is much smaller than the input.
+     */
+    private static List<Product> topN(List<Product> products, Comparator<Product> comparator, int limit) {
+        if (limit >= products.size() / 2) {
+            List<Product> sorted = new ArrayList<>(products);
+            sorted.sort(comparator);
+            return sorted.size() > limit ? sorted.subList(0, limit) : sorted;
+        }
+        PriorityQueue<Product> heap = new PriorityQueue<>(limit + 1, comparator.reversed());
+        for (Product product : products) {
+            if (heap.size() < limit) {
+                heap.add(product);
+            } else if (comparator.compare(product, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(product);
+            }
+        }
+        List<Product> top = new ArrayList<>(heap);
+        top.sort(comparator);
+        return top;
+    }
+
+    private static Comparator<Product> comparator(String sortField, boolean descending) {
+        Comparator<Product> comparator;
+        if ("price".equals(sortField)) {
+            comparator = Comparator.comparingDouble(Product::getPrice);
+        } else if ("rating".equals(sortField)) {
+            comparator = Comparator.comparingDouble(Product::getRating);
+        } else if ("name".equals(sortField)) {
+            comparator = Comparator.comparing(Product::getName);
+        } else {
+            return null;
+        }
+        // Break ties on id so pages are stable
+        comparator = comparator.thenComparing(Product::getId);
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    private String sortField() {
+        String sortBy = query.getSortBy();
+        if (sortBy == null) {
+            // Search results keep relevance order; plain listings default to name as before
+            return hasSearch() ? null : "name";
+        }
+        if ("price".equalsIgnoreCase(sortBy) || "rating".equalsIgnoreCase(sortBy) || "name".equalsIgnoreCase(sortBy)) {
+            return sortBy.toLowerCase();
+        }
+        return null;
+    }
+
+    private boolean hasSearch() {
+        return query.getSearch() != null && !query.getSearch().isEmpty();
+    }
+
+    private int pageNumber() {
+        return query.getPage() != null ? query.getPage() : 0;
+    }
+
+    private static String sortSuffix(int wanted) {
+        return wanted == Integer.MAX_VALUE ? "+SORT" : "+TOP_N";
+    }
+
+    private static double log2(int value) {
+        return Math.max(1.0, Math.log(Math.min(value, 1 << 20)) / Math.log(2));
+    }
+}
@@ -0,0 +1,243 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable columnar index over price and rating. Each column is a sorted
+ * double[] with a parallel int[] of document ordinals, so a range lookup is two
+ * binary searches; the combined price and rating query intersects the two
+ * ranges as bitsets over the ordinals.
+ */
+public final class ProductRangeIndex {
+
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private final Product[] docs;
+    private final double[] sortedPrices;
+    private final int[] priceDocs;
+    private final double[] sortedRatings;
+    private final int[] ratingDocs;
+
+    private ProductRangeIndex(Product[] docs, double[] sortedPrices, int[] priceDocs,
+                              double[] sortedRatings, int[] ratingDocs) {
+        this.docs = docs;
+        this.sortedPrices = sortedPrices;
+        this.priceDocs = priceDocs;
+        this.sortedRatings = sortedRatings;
+        this.ratingDocs = ratingDocs;
+    }
+
+    public static ProductRangeIndex build(Collection<Product> products) {
+        Product[] docs = products.toArray(new Product[0]);
+        double[] prices = new double[docs.length];
+        double[] ratings = new double[docs.length];
+        int[] priceDocs = new int[docs.length];
+        int[] ratingDocs = new int[docs.length];
+
+        for (int doc = 0; doc < docs.length; doc++) {
+            prices[doc] = docs[doc].getPrice();
+            ratings[doc] = docs[doc].getRating();
+            priceDocs[doc] = doc;
+            ratingDocs[doc] = doc;
+        }
+        sort(prices, priceDocs, 0, docs.length - 1);
+        sort(ratings, ratingDocs, 0, docs.length - 1);
+
+        return new ProductRangeIndex(docs, prices, priceDocs, ratings, ratingDocs);
+    }
+
+    /**
+     * Products with price and rating inside the inclusive bounds, in catalog
+     * order. A null bound leaves that side of the range open.
+     */
+    public List<Product> filter(Double minPrice, Double maxPrice, Double minRating, Double maxRating) {
+        BitSet matches = matching(minPrice, maxPrice, minRating, maxRating);
+        List<Product> results = new ArrayList<>(matches.cardinality());
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            results.add(docs[doc]);
+        }
+        return results;
+    }
+
+    /**
+     * Document ordinals matching the bounds. Ordinals index the collection the
+     * index was built from.
+     */
+    public BitSet matching(Double minPrice, Double maxPrice, Double minRating, Double maxRating) {
+        BitSet byPrice = range(sortedPrices, priceDocs, minPrice, maxPrice);
+        if (minRating == null && maxRating == null) {
+            return byPrice;
+        }
+        BitSet byRating = range(sortedRatings, ratingDocs, minRating, maxRating);
+        if (minPrice == null && maxPrice == null) {
+            return byRating;
+        }
+        byPrice.and(byRating);
+        return byPrice;
+    }
+
+    public int countByPrice(Double min, Double max) {
+        return countInRange(sortedPrices, min, max);
+    }
+
+    public int countByRating(Double min, Double max) {
+        return countInRange(sortedRatings, min, max);
+    }
+
+    /**
+     * Walks the price or rating column in sorted order from the given bounds and
+     * returns the first {@code limit} products accepted by the filter. Equal
+     * values come out in catalog order (reversed when descending).
+     */
+    public List<Product> scan(boolean byPrice, Double min, Double max, boolean descending,
+                              Predicate<Product> filter, int limit) {
+        double[] sorted = byPrice ? sortedPrices : sortedRatings;
+        int[] docIds = byPrice ? priceDocs : ratingDocs;
+        int from = min == null ? 0 : lowerBound(sorted, min);
+        int to = max == null ? sorted.length : upperBound(sorted, max);
+
+        List<Product> results = new ArrayList<>(Math.min(limit, Math.max(0, to - from)));
+        for (int i = 0; i < to - from && results.size() < limit; i++) {
+            Product product = docs[docIds[descending ? to - 1 - i : from + i]];
+            if (filter.test(product)) {
+                results.add(product);
+            }
+        }
+        return results;
+    }
+
+    public Product product(int doc) {
+        return docs[doc];
+    }
+
+    public int size() {
+        return docs.length;
+    }
+
+    private static int countInRange(double[] sorted, Double min, Double max) {
+        int from = min == null ? 0 : lowerBound(sorted, min);
+        int to = max == null ? sorted.length : upperBound(sorted, max);
+        return Math.max(0, to - from);
+    }
+
+    private BitSet range(double[] sorted, int[] docIds, Double min, Double max) {
+        int from = min == null ? 0 : lowerBound(sorted, min);
+        int to = max == null ? sorted.length : upperBound(sorted, max);
+        BitSet bits = new BitSet(docs.length);
+        for (int i = from; i < to; i++) {
+            bits.set(docIds[i]);
+        }
+        return bits;
+    }
+
+    // First position whose value is >= key
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position whose value is > key
+    private static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts by (value, ordinal) ascending and applies the same permutation to
+     * docIds. Kept on primitives so building the index never boxes a value.
+     */
+    private static void sort(double[] values, int[] docIds, int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int mid = (low + high) >>> 1;
+            // Median of three keeps already-sorted input (the usual case after a reload) from degrading
+            if (before(values[mid], docIds[mid], values[low], docIds[low])) {
+                swap(values, docIds, mid, low);
+            }
+            if (before(values[high], docIds[high], values[low], docIds[low])) {
+                swap(values, docIds, high, low);
+            }
+            if (before(values[high], docIds[high], values[mid], docIds[mid])) {
+                swap(values, docIds, high, mid);
+            }
+            double pivot = values[mid];
+            int pivotDoc = docIds[mid];
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (before(values[i], docIds[i], pivot, pivotDoc)) {
+                    i++;
+                }
+                while (before(pivot, pivotDoc, values[j], docIds[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, docIds, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Recurse into the smaller half and loop on the larger to bound stack depth
+            if (j - low < high - i) {
+                sort(values, docIds, low, j);
+                low = i;
+            } else {
+                sort(values, docIds, i, high);
+                high = j;
+            }
+        }
+        insertionSort(values, docIds, low, high);
+    }
+
+    private static void insertionSort(double[] values, int[] docIds, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            double value = values[i];
+            int doc = docIds[i];
+            int j = i - 1;
+            while (j >= low && before(value, doc, values[j], docIds[j])) {
+                values[j + 1] = values[j];
+                docIds[j + 1] = docIds[j];
+                j--;
+            }
+            values[j + 1] = value;
+            docIds[j + 1] = doc;
+        }
+    }
+
+    private static boolean before(double value, int doc, double otherValue, int otherDoc) {
+        return value < otherValue || (value == otherValue && doc < otherDoc);
+    }
+
+    private static void swap(double[] values, int[] docIds, int a, int b) {
+        double value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+        int doc = docIds[a];
+        docIds[a] = docIds[b];
+        docIds[b] = doc;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ramya.ecomerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Already-encoded JSON bodies for catalog responses, valid for one catalog
+ * version. ProductService announces each new version; the whole generation is
+ * dropped at that point, so a lookup never needs to consult the catalog itself.
+ */
+@Service
+public class ProductResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.response-cache.max-entries:1024}")
+    private int maxEntries;
+
+    @Value("${catalog.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private volatile Generation generation = new Generation(-1L);
+
+    public void onCatalogPublished(long version) {
+        if (generation.version != version) {
+            generation = new Generation(version);
+        }
+    }
+
+    public CachedResponse get(String key) {
+        return generation.entries.get(key);
+    }
+
+    /**
+     * Serializes the body and keeps it if it belongs to the current catalog
+     * version and fits the size limits. The encoded response is returned
+     * either way so the caller serializes only once.
+     */
+    public CachedResponse put(long version, String key, Object body) {
+        CachedResponse response = encode(body);
+        Generation current = generation;
+        if (current.version != version || current.entries.size() >= maxEntries) {
+            return response;
+        }
+        CachedResponse existing = current.entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int length = response.getBody().length;
+        if (!reserve(current, length)) {
+            return response;
+        }
+        existing = current.entries.putIfAbsent(key, response);
+        if (existing != null) {
+            // Another request cached the same key first; only its bytes count
+            current.bytes.addAndGet(-length);
+            return existing;
+        }
+        return response;
+    }
+
+    // Counts length against the byte limit only if it still fits, so a rejected body leaves no trace
+    private boolean reserve(Generation current, int length) {
+        while (true) {
+            long used = current.bytes.get();
+            if (used + length > maxBytes) {
+                return false;
+            }
+            if (current.bytes.compareAndSet(used, used + length)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * True when an If-None-Match header value names the given entity tag.
+     * Weak validators compare equal to their strong form, as RFC 9110 allows
+     * for If-None-Match.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CachedResponse encode(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(json, etagFor(json));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog response", e);
+        }
+    }
+
+    // Content hash rather than catalog version so tags stay valid across restarts and unchanged products
+    private static String etagFor(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String productKey(Long id) {
+        return "product:" + id;
+    }
+
+    public static String listingKey(String queryString) {
+        return "list:" + (queryString != null ? queryString : "");
+    }
+
+    public static String facetsKey(String queryString) {
+        return "facets:" + (queryString != null ? queryString : "");
+    }
+
+    public static final class CachedResponse {
+        private final byte[] body;
+        private final String etag;
+
+        private CachedResponse(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    private static final class Generation {
+        private final long version;
+        private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+        private final AtomicLong bytes = new AtomicLong();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+    }
+}
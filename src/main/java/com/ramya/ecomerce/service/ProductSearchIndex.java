@@ -0,0 +1,388 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable inverted index over product name, category and description.
+ *
+ * Name and category are indexed as trigrams so any substring of three or more
+ * characters can be found, matching the old LIKE behaviour. Description is
+ * indexed by whole words only (matched by word prefix) to keep postings small.
+ * Queries of one or two characters match word prefixes in any field.
+ *
+ * Small updates are layered on top as an overlay that is scanned linearly;
+ * once the overlay grows past {@link #MAX_OVERLAY} the index is rebuilt.
+ */
+public final class ProductSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int MAX_OVERLAY = 1024;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_WORD_BONUS = 2;
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final Entry[] entries;
+    private final Map<String, int[]> grams;
+    private final Map<String, int[]> words;
+    private final String[] sortedWords;
+
+    // Base documents superseded by the overlay, and the overlay itself
+    private final Set<Long> shadowed;
+    private final List<Entry> overlay;
+
+    private ProductSearchIndex(Entry[] entries, Map<String, int[]> grams, Map<String, int[]> words,
+                               String[] sortedWords, Set<Long> shadowed, List<Entry> overlay) {
+        this.entries = entries;
+        this.grams = grams;
+        this.words = words;
+        this.sortedWords = sortedWords;
+        this.shadowed = shadowed;
+        this.overlay = overlay;
+    }
+
+    public static ProductSearchIndex build(Collection<Product> products) {
+        Entry[] entries = new Entry[products.size()];
+        Map<String, IntBuffer> gramBuffers = new HashMap<>();
+        Map<String, IntBuffer> wordBuffers = new HashMap<>();
+
+        int doc = 0;
+        for (Product product : products) {
+            Entry entry = new Entry(product);
+            entries[doc] = entry;
+
+            addGrams(gramBuffers, entry.name, doc);
+            addGrams(gramBuffers, entry.category, doc);
+            addWords(wordBuffers, tokenize(product.getName()), doc);
+            addWords(wordBuffers, tokenize(product.getCategory()), doc);
+            addWords(wordBuffers, tokenize(product.getDescription()), doc);
+            doc++;
+        }
+
+        Map<String, int[]> words = freeze(wordBuffers);
+        String[] sortedWords = words.keySet().toArray(new String[0]);
+        Arrays.sort(sortedWords);
+
+        return new ProductSearchIndex(entries, freeze(gramBuffers), words, sortedWords,
+            Collections.emptySet(), Collections.emptyList());
+    }
+
+    /**
+     * Returns an index reflecting the changed products. This index is left
+     * untouched; the base postings are shared with the returned index.
+     */
+    public ProductSearchIndex withChanges(Collection<Product> changed, Collection<Product> allProducts) {
+        if (overlay.size() + changed.size() > MAX_OVERLAY) {
+            return build(allProducts);
+        }
+        Map<Long, Entry> merged = new LinkedHashMap<>();
+        for (Entry entry : overlay) {
+            merged.put(entry.product.getId(), entry);
+        }
+        for (Product product : changed) {
+            merged.put(product.getId(), new Entry(product));
+        }
+        Set<Long> nextShadowed = new HashSet<>(shadowed);
+        nextShadowed.addAll(merged.keySet());
+        return new ProductSearchIndex(entries, grams, words, sortedWords,
+            Collections.unmodifiableSet(nextShadowed), List.copyOf(merged.values()));
+    }
+
+    /**
+     * Products matching every query word, best match first. A word scores by
+     * the fields it appears in (name over category over description), with a
+     * bonus for whole-word matches; ties are broken by rating.
+     */
+    public List<Product> search(String query) {
+        return search(query, product -> true);
+    }
+
+    /**
+     * Same as {@link #search(String)}, with the filter applied to candidates
+     * before they are scored so other predicates cut the ranking work.
+     */
+    public List<Product> search(String query, Predicate<Product> filter) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int[] candidates = null;
+        for (String term : terms) {
+            int[] postings = candidatesFor(term);
+            candidates = candidates == null ? postings : intersect(candidates, postings);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int doc : candidates) {
+            Entry entry = entries[doc];
+            if (shadowed.contains(entry.product.getId()) || !filter.test(entry.product)) {
+                continue;
+            }
+            int score = entry.score(terms);
+            if (score > 0) {
+                hits.add(new Hit(entry.product, score));
+            }
+        }
+        for (Entry entry : overlay) {
+            if (!filter.test(entry.product)) {
+                continue;
+            }
+            int score = entry.score(terms);
+            if (score > 0) {
+                hits.add(new Hit(entry.product, score));
+            }
+        }
+
+        hits.sort((a, b) -> {
+            if (a.score != b.score) {
+                return Integer.compare(b.score, a.score);
+            }
+            int byRating = Double.compare(b.product.getRating(), a.product.getRating());
+            return byRating != 0 ? byRating : Long.compare(a.product.getId(), b.product.getId());
+        });
+
+        List<Product> results = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            results.add(hit.product);
+        }
+        return results;
+    }
+
+    private int[] candidatesFor(String term) {
+        List<int[]> postingLists = new ArrayList<>();
+        int total = 0;
+
+        // Word-prefix matches in any field
+        int start = Arrays.binarySearch(sortedWords, term);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = start; i < sortedWords.length && sortedWords[i].startsWith(term); i++) {
+            int[] postings = words.get(sortedWords[i]);
+            postingLists.add(postings);
+            total += postings.length;
+        }
+
+        // Substring matches in name or category; the trigram intersection can
+        // over-match, which Entry.score filters out
+        if (term.length() >= GRAM) {
+            int[] docsWithAllGrams = null;
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                int[] postings = grams.getOrDefault(term.substring(i, i + GRAM), NO_DOCS);
+                docsWithAllGrams = docsWithAllGrams == null ? postings : intersect(docsWithAllGrams, postings);
+                if (docsWithAllGrams.length == 0) {
+                    break;
+                }
+            }
+            postingLists.add(docsWithAllGrams);
+            total += docsWithAllGrams.length;
+        }
+
+        return union(postingLists, total);
+    }
+
+    /**
+     * Sorted, de-duplicated union. Small unions are sorted directly; large ones
+     * go through a bitset sized to the catalog.
+     */
+    private int[] union(List<int[]> postingLists, int total) {
+        if (postingLists.size() == 1) {
+            return postingLists.get(0);
+        }
+        if (total < entries.length >> 5) {
+            int[] all = new int[total];
+            int n = 0;
+            for (int[] postings : postingLists) {
+                System.arraycopy(postings, 0, all, n, postings.length);
+                n += postings.length;
+            }
+            Arrays.sort(all);
+            int unique = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (unique == 0 || all[unique - 1] != all[i]) {
+                    all[unique++] = all[i];
+                }
+            }
+            return unique == all.length ? all : Arrays.copyOf(all, unique);
+        }
+        BitSet matches = new BitSet(entries.length);
+        for (int[] postings : postingLists) {
+            for (int doc : postings) {
+                matches.set(doc);
+            }
+        }
+        return matches.stream().toArray();
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static void addGrams(Map<String, IntBuffer> index, String text, int doc) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            index.computeIfAbsent(text.substring(i, i + GRAM), key -> new IntBuffer()).addOnce(doc);
+        }
+    }
+
+    private static void addWords(Map<String, IntBuffer> index, String[] tokens, int doc) {
+        for (String token : tokens) {
+            index.computeIfAbsent(token, key -> new IntBuffer()).addOnce(doc);
+        }
+    }
+
+    private static Map<String, int[]> freeze(Map<String, IntBuffer> buffers) {
+        Map<String, int[]> frozen = new HashMap<>(buffers.size() * 2);
+        for (Map.Entry<String, IntBuffer> entry : buffers.entrySet()) {
+            frozen.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return frozen;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static String[] tokenize(String text) {
+        String normalized = normalize(text).trim();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+            .filter(token -> !token.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    private static String joinWords(String[] tokens) {
+        return tokens.length == 0 ? "" : " " + String.join(" ", tokens);
+    }
+
+    /**
+     * Lowercased field text for one product. Word fields are stored as
+     * " word word" so a word-prefix test is a plain contains(" " + term).
+     */
+    private static final class Entry {
+        private final Product product;
+        private final String name;
+        private final String nameWords;
+        private final String category;
+        private final String categoryWords;
+        private final String descriptionWords;
+
+        private Entry(Product product) {
+            this.product = product;
+            this.name = normalize(product.getName());
+            this.nameWords = joinWords(tokenize(product.getName()));
+            this.category = normalize(product.getCategory());
+            this.categoryWords = joinWords(tokenize(product.getCategory()));
+            this.descriptionWords = joinWords(tokenize(product.getDescription()));
+        }
+
+        private int score(String[] terms) {
+            int total = 0;
+            for (String term : terms) {
+                int score = 0;
+                if (matches(name, nameWords, term)) {
+                    score += NAME_WEIGHT;
+                }
+                if (matches(category, categoryWords, term)) {
+                    score += CATEGORY_WEIGHT;
+                }
+                if (descriptionWords.contains(" " + term)) {
+                    score += DESCRIPTION_WEIGHT;
+                }
+                if (score == 0) {
+                    return 0;
+                }
+                if (hasWord(nameWords, term) || hasWord(categoryWords, term) || hasWord(descriptionWords, term)) {
+                    score += EXACT_WORD_BONUS;
+                }
+                total += score;
+            }
+            return total;
+        }
+
+        private static boolean matches(String text, String words, String term) {
+            return term.length() >= GRAM ? text.contains(term) : words.contains(" " + term);
+        }
+
+        private static boolean hasWord(String words, String term) {
+            int from = words.indexOf(" " + term);
+            while (from >= 0) {
+                int end = from + 1 + term.length();
+                if (end == words.length() || words.charAt(end) == ' ') {
+                    return true;
+                }
+                from = words.indexOf(" " + term, from + 1);
+            }
+            return false;
+        }
+    }
+
+    private static final class Hit {
+        private final Product product;
+        private final int score;
+
+        private Hit(Product product, int score) {
+            this.product = product;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Growable int array. Documents are visited in ascending order, so
+     * postings come out sorted and only need a duplicate check on the tail.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[4];
+        private int size;
+
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,11 +1,29 @@
 package com.ramya.ecomerce.service;
 
+import com.ramya.ecomerce.dto.ProductBatchResponse;
+import com.ramya.ecomerce.dto.ProductPage;
+import com.ramya.ecomerce.dto.ProductQuery;
+import com.ramya.ecomerce.dto.ProductQueryResult;
+import com.ramya.ecomerce.dto.ProductSuggestion;
 import com.ramya.ecomerce.entity.Product;
 import com.ramya.ecomerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -14,23 +32,87 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductResponseCache responseCache;
+
+    @Autowired
+    private ProductSuggestService suggestService;
+
+    @Autowired
+    private CartTotals cartTotals;
+
+    @Value("${catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${catalog.max-batch-size:100}")
+    private int maxBatchSize;
+
+    // Replaced wholesale on every refresh; readers only ever dereference it once per call
+    private volatile CatalogSnapshot catalog = CatalogSnapshot.EMPTY;
+
+    private final Object refreshLock = new Object();
+
+    private final QueryPlanStats queryPlanStats = new QueryPlanStats();
+
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return catalog().getProducts();
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id).orElse(null);
+        return catalog().getProduct(id);
+    }
+
+    /**
+     * Resolves ids in request order from the catalog snapshot. Ids the
+     * snapshot has not seen yet are looked up in a single findAllById, and
+     * anything still unresolved is reported as missing.
+     */
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " products can be requested at once");
+        }
+
+        CatalogSnapshot snapshot = catalog();
+        Map<Long, Product> found = new HashMap<>();
+        Set<Long> unresolved = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Product product = id != null ? snapshot.getProduct(id) : null;
+            if (product != null) {
+                found.put(id, product);
+            } else if (id != null) {
+                unresolved.add(id);
+            }
+        }
+
+        if (!unresolved.isEmpty()) {
+            for (Product product : productRepository.findAllById(unresolved)) {
+                found.put(product.getId(), product);
+            }
+        }
+
+        List<Product> products = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = id != null ? found.get(id) : null;
+            if (product != null) {
+                products.add(product);
+            } else if (id != null && !missingIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+
+        return new ProductBatchResponse(products, missingIds);
     }
 
     public List<Product> searchProducts(String search) {
         if (search == null || search.isEmpty()) {
             return getAllProducts();
         }
-        return productRepository.searchProducts(search);
+        return catalog().getSearchIndex().search(search);
     }
 
     public List<Product> filterProducts(Double minPrice, Double maxPrice, Double minRating, Double maxRating) {
-        return productRepository.filterProducts(minPrice, maxPrice, minRating, maxRating);
+        return catalog().getRangeIndex().filter(minPrice, maxPrice, minRating, maxRating);
     }
 
     public List<Product> sortProducts(List<Product> products, String sortBy, String order) {
@@ -53,5 +135,240 @@ public class ProductService {
 
         return products;
     }
-}
 
+    /**
+     * Evaluates search, filters, category and sort together against the
+     * catalog snapshot. Every bound is optional and applied on its own.
+     */
+    public ProductQueryResult queryProducts(ProductQuery query) {
+        if (query.getPage() != null && query.getPage() < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        // Same bound as keyset pages, so one request cannot ask for the whole catalog
+        if (query.getSize() != null) {
+            query.setSize(Math.max(1, Math.min(query.getSize(), maxPageSize)));
+        }
+
+        long start = System.nanoTime();
+        ProductQueryPlanner planner = new ProductQueryPlanner(catalog(), query);
+        List<Product> items = planner.execute();
+        long elapsed = System.nanoTime() - start;
+
+        queryPlanStats.record(planner.getPlan(), elapsed);
+
+        return new ProductQueryResult(items, query.getPage(), query.getSize(), planner.hasMore(),
+            planner.getPlan(), elapsed / 1000);
+    }
+
+    /**
+     * Counts per category, price bucket and rating bucket for the products
+     * matching the query's search and filters. Sort and paging are ignored.
+     */
+    public Map<String, Object> getFacets(ProductQuery query) {
+        CatalogSnapshot snapshot = catalog();
+        ProductFacetIndex facets = snapshot.getFacetIndex();
+        if (!hasPredicates(query)) {
+            return facets.counts(facets.all());
+        }
+        return facets.counts(new ProductQueryPlanner(snapshot, query).matchingDocs());
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return suggestService.suggest(catalog(), prefix, limit);
+    }
+
+    public Map<String, Map<String, Object>> getQueryPlanStats() {
+        return queryPlanStats.snapshot();
+    }
+
+    /**
+     * Returns one page of the catalog in (sort key, id) order. Sorting and the
+     * page boundary are both evaluated by the database, so the cost depends on
+     * the page size rather than the catalog size.
+     */
+    public ProductPage getProductPage(String sortBy, String order, int limit, String after) {
+        String field = normalizeSortField(sortBy);
+        String direction = "desc".equalsIgnoreCase(order) ? "desc" : "asc";
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        // One extra row tells us whether another page exists without a count query
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<Product> rows;
+
+        if (after == null || after.isEmpty()) {
+            Sort.Direction sortDirection = "desc".equals(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = "id".equals(field)
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, field).and(Sort.by(sortDirection, "id"));
+            rows = productRepository.findAllBy(PageRequest.of(0, pageSize + 1, sort));
+        } else {
+            ProductCursor cursor = ProductCursor.decode(after);
+            if (!cursor.matches(field, direction)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            rows = findPageAfter(field, direction, cursor, window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore
+            ? ProductCursor.after(items.get(items.size() - 1), field, direction).encode()
+            : null;
+
+        return new ProductPage(items, nextCursor, hasMore);
+    }
+
+    public CatalogSnapshot getCatalogSnapshot() {
+        return catalog();
+    }
+
+    public PriceTable getPriceTable() {
+        return catalog().getPriceTable();
+    }
+
+    /**
+     * Pulls rows whose updated_at is at or after the current watermark and
+     * publishes a merged copy of the snapshot. Falls back to a full reload when
+     * the row count no longer matches, which is how deletes are picked up.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:5000}")
+    public void refreshCatalog() {
+        synchronized (refreshLock) {
+            CatalogSnapshot current = catalog;
+            if (current == CatalogSnapshot.EMPTY || current.getWatermark() == null) {
+                reloadCatalog();
+                return;
+            }
+
+            // Read the high-water mark before the rows so anything written in between is fetched again next time
+            LocalDateTime watermark = toLocalDateTime(productRepository.findMaxUpdatedAt());
+            List<Product> changed = withoutKnownVersions(current,
+                productRepository.findUpdatedSince(Timestamp.valueOf(current.getWatermark())));
+
+            CatalogSnapshot next = changed.isEmpty()
+                ? current.touch(watermark)
+                : current.merge(changed, watermark);
+
+            if (next.size() != productRepository.count()) {
+                reloadCatalog();
+                return;
+            }
+            if (changed.isEmpty()) {
+                // Same version and contents, so the response cache and suggest index are left alone
+                catalog = next;
+                return;
+            }
+            publish(next);
+            cartTotals.onPricesChanged(next.getVersion(), repricedIds(current, changed));
+        }
+    }
+
+    public void reloadCatalog() {
+        synchronized (refreshLock) {
+            LocalDateTime watermark = toLocalDateTime(productRepository.findMaxUpdatedAt());
+            List<Product> products = productRepository.findAll();
+            CatalogSnapshot next = CatalogSnapshot.of(catalog.getVersion() + 1, products, watermark);
+            publish(next);
+            // No per-product diff on a full reload, so every cached cart total is recomputed on its next read
+            cartTotals.invalidateAll(next.getVersion());
+        }
+    }
+
+    /**
+     * The refresh query is inclusive of the watermark, so rows stamped exactly
+     * at it come back on every run. Those the snapshot already holds at the
+     * same updated_at are dropped, which lets an idle refresh end in touch()
+     * instead of publishing an identical snapshot under a new version.
+     */
+    private static List<Product> withoutKnownVersions(CatalogSnapshot current, List<Product> rows) {
+        List<Product> changed = new ArrayList<>(rows.size());
+        for (Product product : rows) {
+            Product known = current.getProduct(product.getId());
+            if (known == null || known.getUpdatedAt() == null
+                || !known.getUpdatedAt().equals(product.getUpdatedAt())) {
+                changed.add(product);
+            }
+        }
+        return changed;
+    }
+
+    private static List<Long> repricedIds(CatalogSnapshot previous, List<Product> changed) {
+        List<Long> ids = new ArrayList<>();
+        for (Product product : changed) {
+            Product before = previous.getProduct(product.getId());
+            if (before == null || !Objects.equals(before.getPrice(), product.getPrice())) {
+                ids.add(product.getId());
+            }
+        }
+        return ids;
+    }
+
+    private boolean hasPredicates(ProductQuery query) {
+        return (query.getSearch() != null && !query.getSearch().isEmpty())
+            || (query.getCategory() != null && !query.getCategory().isEmpty())
+            || query.getMinPrice() != null || query.getMaxPrice() != null
+            || query.getMinRating() != null || query.getMaxRating() != null;
+    }
+
+    private void publish(CatalogSnapshot next) {
+        // Retire cached responses first so nothing built from the old snapshot is stored under the new version
+        responseCache.onCatalogPublished(next.getVersion());
+        catalog = next;
+        suggestService.onCatalogPublished(next);
+    }
+
+    private List<Product> findPageAfter(String field, String direction, ProductCursor cursor, Pageable window) {
+        boolean desc = "desc".equals(direction);
+        switch (field) {
+            case "price":
+                return desc
+                    ? productRepository.findPageByPriceDescAfter(cursor.getNumericKey(), cursor.getId(), window)
+                    : productRepository.findPageByPriceAscAfter(cursor.getNumericKey(), cursor.getId(), window);
+            case "rating":
+                return desc
+                    ? productRepository.findPageByRatingDescAfter(cursor.getNumericKey(), cursor.getId(), window)
+                    : productRepository.findPageByRatingAscAfter(cursor.getNumericKey(), cursor.getId(), window);
+            case "name":
+                return desc
+                    ? productRepository.findPageByNameDescAfter(cursor.getKey(), cursor.getId(), window)
+                    : productRepository.findPageByNameAscAfter(cursor.getKey(), cursor.getId(), window);
+            default:
+                return desc
+                    ? productRepository.findPageByIdDescAfter(cursor.getId(), window)
+                    : productRepository.findPageByIdAscAfter(cursor.getId(), window);
+        }
+    }
+
+    private String normalizeSortField(String sortBy) {
+        if ("price".equalsIgnoreCase(sortBy)) {
+            return "price";
+        } else if ("rating".equalsIgnoreCase(sortBy)) {
+            return "rating";
+        } else if ("name".equalsIgnoreCase(sortBy)) {
+            return "name";
+        }
+        return "id";
+    }
+
+    private CatalogSnapshot catalog() {
+        CatalogSnapshot current = catalog;
+        if (current == CatalogSnapshot.EMPTY) {
+            // Only the very first read waits for the initial load; afterwards readers never block
+            reloadCatalogIfEmpty();
+            current = catalog;
+        }
+        return current;
+    }
+
+    private void reloadCatalogIfEmpty() {
+        synchronized (refreshLock) {
+            if (catalog == CatalogSnapshot.EMPTY) {
+                reloadCatalog();
+            }
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,226 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.ProductSuggestion;
+import com.ramya.ecomerce.entity.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable typeahead index over product names and categories.
+ *
+ * Every completion is stored once per word it starts at ("wireless mouse" is
+ * also reachable as "mouse"), in a sorted key array, so a prefix is a
+ * contiguous range found by two binary searches. A max segment tree over the
+ * weights then yields the best k entries of that range in O(k log n) without
+ * scanning it. Memory is a few primitive arrays per key plus the key strings.
+ */
+public final class ProductSuggestIndex {
+
+    public static final ProductSuggestIndex EMPTY = build(Collections.emptyList(), Collections.emptyMap());
+
+    private static final long CATEGORY = -1L;
+
+    // Keys per completion are capped so a long product name cannot blow up the key array
+    private static final int MAX_WORD_STARTS = 8;
+
+    private final String[] keys;
+    private final int[] completions;
+    private final double[] weights;
+    private final int[] tree;
+    private final String[] displays;
+    private final long[] productIds;
+
+    private ProductSuggestIndex(String[] keys, int[] completions, double[] weights, String[] displays,
+                                long[] productIds) {
+        this.keys = keys;
+        this.completions = completions;
+        this.weights = weights;
+        this.displays = displays;
+        this.productIds = productIds;
+        this.tree = buildTree(weights);
+    }
+
+    /**
+     * @param unitsSold units sold per product id; products without sales weigh by rating alone
+     */
+    public static ProductSuggestIndex build(Collection<Product> products, Map<Long, Long> unitsSold) {
+        // One completion per distinct (lowercased) name or category, keeping its best weight
+        Map<String, Integer> completionByText = new HashMap<>();
+        List<String> displays = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        List<Double> completionWeights = new ArrayList<>();
+
+        for (Product product : products) {
+            double weight = weight(product, unitsSold.getOrDefault(product.getId(), 0L));
+            addCompletion(completionByText, displays, productIds, completionWeights,
+                product.getName(), product.getId(), weight);
+            addCompletion(completionByText, displays, productIds, completionWeights,
+                product.getCategory(), CATEGORY, weight);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (int completion = 0; completion < displays.size(); completion++) {
+            String text = displays.get(completion).toLowerCase(Locale.ROOT);
+            int wordStarts = 0;
+            for (int start = 0; start < text.length() && wordStarts < MAX_WORD_STARTS; start++) {
+                boolean wordStart = start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+                if (wordStart && Character.isLetterOrDigit(text.charAt(start))) {
+                    entries.add(new Entry(text.substring(start), completion));
+                    wordStarts++;
+                }
+            }
+        }
+        entries.sort((a, b) -> a.key.compareTo(b.key));
+
+        String[] keys = new String[entries.size()];
+        int[] completions = new int[entries.size()];
+        double[] weights = new double[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            keys[i] = entry.key;
+            completions[i] = entry.completion;
+            weights[i] = completionWeights.get(entry.completion);
+        }
+
+        return new ProductSuggestIndex(keys, completions, weights, displays.toArray(new String[0]),
+            productIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || keys.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        // Best-first over sub-ranges: take the range maximum, then split the range around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> Double.compare(weights[b[0]], weights[a[0]]));
+        ranges.add(new int[] {argMax(from, to), from, to});
+
+        List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && suggestions.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[0];
+            int completion = completions[best];
+            if (seen.add(completion)) {
+                long productId = productIds[completion];
+                suggestions.add(new ProductSuggestion(displays[completion],
+                    productId == CATEGORY ? "category" : "product",
+                    productId == CATEGORY ? null : productId));
+            }
+            if (range[1] < best) {
+                ranges.add(new int[] {argMax(range[1], best), range[1], best});
+            }
+            if (best + 1 < range[2]) {
+                ranges.add(new int[] {argMax(best + 1, range[2]), best + 1, range[2]});
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private static void addCompletion(Map<String, Integer> completionByText, List<String> displays,
+                                      List<Long> productIds, List<Double> weights,
+                                      String text, long productId, double weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String key = text.toLowerCase(Locale.ROOT);
+        Integer completion = completionByText.get(key);
+        if (completion == null) {
+            completionByText.put(key, displays.size());
+            displays.add(text);
+            productIds.add(productId);
+            weights.add(weight);
+        } else if (weight > weights.get(completion)) {
+            weights.set(completion, weight);
+            if (productIds.get(completion) != CATEGORY) {
+                productIds.set(completion, productId);
+            }
+        }
+    }
+
+    // Rating dominates for unsold products; sales add a log-scaled boost so best sellers rise without swamping rating
+    private static double weight(Product product, long unitsSold) {
+        double rating = product.getRating() != null ? product.getRating() : 0.0;
+        return rating + Math.log1p(unitsSold);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Iterative max segment tree over entry positions; leaves live at
+     * [n, 2n) and each internal node holds the position of its larger child.
+     */
+    private static int[] buildTree(double[] weights) {
+        int n = weights.length;
+        int[] tree = new int[Math.max(2, 2 * n)];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int node = n - 1; node > 0; node--) {
+            int left = tree[2 * node];
+            int right = tree[2 * node + 1];
+            tree[node] = weights[right] > weights[left] ? right : left;
+        }
+        return tree;
+    }
+
+    // Position of the largest weight in [from, to)
+    private int argMax(int from, int to) {
+        int n = weights.length;
+        int best = from;
+        for (int left = from + n, right = to + n; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = better(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = better(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        return weights[b] > weights[a] ? b : a;
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final int completion;
+
+        private Entry(String key, int completion) {
+            this.key = key;
+            this.completion = completion;
+        }
+    }
+}
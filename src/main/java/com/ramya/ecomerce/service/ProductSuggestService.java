@@ -0,0 +1,124 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.ProductSuggestion;
+import com.ramya.ecomerce.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the typeahead index. ProductService announces each published catalog
+ * snapshot and the index is rebuilt on a single background thread, so
+ * suggestions keep coming from the previous index while a rebuild runs.
+ *
+ * Units sold, which weigh suggestions by popularity, come from a GROUP BY over
+ * order_items. That is read once at startup and then every
+ * catalog.suggest.popularity-refresh-ms, not on every catalog version.
+ */
+@Service
+public class ProductSuggestService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${catalog.suggest.max-results:20}")
+    private int maxResults;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<CatalogSnapshot> pending = new AtomicReference<>();
+
+    private volatile BuiltIndex current;
+
+    // Null until the first rebuild loads it
+    private volatile Map<Long, Long> unitsSold;
+
+    public void onCatalogPublished(CatalogSnapshot snapshot) {
+        // Snapshots published while a rebuild is queued collapse into it; it picks up the latest one
+        if (pending.getAndSet(snapshot) == null) {
+            rebuilder.execute(() -> {
+                CatalogSnapshot latest = pending.getAndSet(null);
+                if (latest != null) {
+                    rebuild(latest);
+                }
+            });
+        }
+    }
+
+    public List<ProductSuggestion> suggest(CatalogSnapshot snapshot, String prefix, int limit) {
+        BuiltIndex built = current;
+        if (built == null) {
+            // Only a request racing the very first background build gets here
+            built = rebuild(snapshot);
+        }
+        return built.index.suggest(prefix, Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    // Reloads units sold, then rebuilds the current index with them on the background thread
+    @Scheduled(fixedDelayString = "${catalog.suggest.popularity-refresh-ms:3600000}",
+        initialDelayString = "${catalog.suggest.popularity-refresh-ms:3600000}")
+    public void refreshPopularity() {
+        unitsSold = loadUnitsSold();
+        rebuilder.execute(() -> {
+            BuiltIndex built = current;
+            if (built != null) {
+                rebuild(built.snapshot);
+            }
+        });
+    }
+
+    private synchronized BuiltIndex rebuild(CatalogSnapshot snapshot) {
+        if (unitsSold == null) {
+            unitsSold = loadUnitsSold();
+        }
+        Map<Long, Long> sold = unitsSold;
+        BuiltIndex built = current;
+        // Never go back to an older snapshot; the same one is rebuilt only for fresh units sold
+        if (built != null && (built.version > snapshot.getVersion()
+                || built.version == snapshot.getVersion() && built.unitsSold == sold)) {
+            return built;
+        }
+        built = new BuiltIndex(snapshot, sold, ProductSuggestIndex.build(snapshot.getProducts(), sold));
+        current = built;
+        return built;
+    }
+
+    private Map<Long, Long> loadUnitsSold() {
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (Object[] row : productRepository.sumQuantitySoldByProduct()) {
+            unitsSold.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return unitsSold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private static final class BuiltIndex {
+        private final long version;
+        private final CatalogSnapshot snapshot;
+        private final Map<Long, Long> unitsSold;
+        private final ProductSuggestIndex index;
+
+        private BuiltIndex(CatalogSnapshot snapshot, Map<Long, Long> unitsSold, ProductSuggestIndex index) {
+            this.version = snapshot.getVersion();
+            this.snapshot = snapshot;
+            this.unitsSold = unitsSold;
+            this.index = index;
+        }
+    }
+}
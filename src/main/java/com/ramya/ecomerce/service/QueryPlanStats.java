@@ -0,0 +1,48 @@
+package com.ramya.ecomerce.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-plan execution counters. Recording is lock-free so it can sit on the
+ * request path.
+ */
+public class QueryPlanStats {
+
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+    public void record(String plan, long elapsedNanos) {
+        timings.computeIfAbsent(plan, key -> new Timing()).record(elapsedNanos);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        timings.forEach((plan, timing) -> result.put(plan, timing.toMap()));
+        return result;
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        Map<String, Object> toMap() {
+            long calls = count.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", calls);
+            values.put("avgMicros", calls == 0 ? 0 : totalNanos.sum() / calls / 1000);
+            values.put("maxMicros", maxNanos.get() / 1000);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ramya.ecomerce.service;
+
+/**
+ * The request could not be handled right now but may succeed if sent again
+ * unchanged, e.g. checkout is at capacity or the same Idempotency-Key is
+ * still being processed. Controllers answer it with 503.
+ */
+public class RetryLaterException extends RuntimeException {
+
+    public RetryLaterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,262 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.ProductSales;
+import com.ramya.ecomerce.entity.Order;
+import com.ramya.ecomerce.entity.OrderItem;
+import com.ramya.ecomerce.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Best sellers over the last hour and the last day, fed from checkout instead
+ * of GROUP BY queries against order_items.
+ *
+ * Orders land in the current minute's bucket of per-product primitive
+ * counters. Once a minute, tick() closes the bucket and folds it into two
+ * sliding totals: the hour total drops minute buckets older than 60 minutes,
+ * the day total drops hour buckets older than 24 hours, so the day window
+ * slides an hour at a time. Memory is at most 60 minute and 24 hour buckets,
+ * each capped at analytics.max-products-per-minute products per minute.
+ *
+ * Top-N lists are rebuilt every analytics.publish-interval-ms and published
+ * as an immutable object, so readers never touch the counters checkout is
+ * writing to.
+ */
+@Service
+public class SalesAnalytics {
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+    public static final String BY_UNITS = "units";
+    public static final String BY_REVENUE = "revenue";
+
+    private static final int MINUTES = 60;
+    private static final int HOURS = 24;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.top-size:100}")
+    private int topSize;
+
+    @Value("${analytics.max-products-per-minute:50000}")
+    private int maxProductsPerMinute;
+
+    @Value("${analytics.publish-interval-ms:5000}")
+    private long publishIntervalMillis;
+
+    private volatile Bucket current = new Bucket(currentMinute());
+    private volatile TopProducts top = new TopProducts(Collections.emptyMap(), null);
+
+    private final LongAdder ordersRecorded = new LongAdder();
+    private final LongAdder linesDropped = new LongAdder();
+
+    // Everything below is only touched by tick()
+    private final Bucket[] minutes = new Bucket[MINUTES];
+    private final ProductCounts[] hours = new ProductCounts[HOURS];
+    private final long[] hourIds = new long[HOURS];
+    private ProductCounts currentHour;
+    private long currentHourId = -1;
+    private ProductCounts hourTotals = new ProductCounts(16);
+    private ProductCounts dayTotals = new ProductCounts(16);
+    private long lastPublishedAt;
+
+    public void record(Order order) {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            Bucket bucket = current;
+            synchronized (bucket) {
+                // A bucket closed after we read it has already been folded in; retry on its successor
+                if (bucket.closed) {
+                    continue;
+                }
+                for (OrderItem item : order.getItems()) {
+                    long productId = item.getProductId();
+                    if (bucket.counts.size() >= maxProductsPerMinute && !bucket.counts.contains(productId)) {
+                        linesDropped.increment();
+                        continue;
+                    }
+                    bucket.counts.add(productId, item.getQuantity(),
+                        Math.round(item.getUnitPrice() * item.getQuantity() * 100));
+                }
+            }
+            ordersRecorded.increment();
+            return;
+        }
+    }
+
+    public List<ProductSales> getTopProducts(String window, String by, int limit) {
+        if (!HOUR.equals(window) && !DAY.equals(window)) {
+            throw new IllegalArgumentException("window must be hour or day");
+        }
+        if (!BY_UNITS.equals(by) && !BY_REVENUE.equals(by)) {
+            throw new IllegalArgumentException("by must be units or revenue");
+        }
+        // Empty until the first publish after startup
+        List<ProductSales> products = top.lists.getOrDefault(key(window, by), Collections.emptyList());
+        return products.subList(0, Math.max(0, Math.min(limit, products.size())));
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return top.generatedAt;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ordersRecorded", ordersRecorded.sum());
+        stats.put("linesDropped", linesDropped.sum());
+        stats.put("generatedAt", top.generatedAt);
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.tick-ms:1000}")
+    public synchronized void tick() {
+        if (!enabled) {
+            return;
+        }
+        long now = currentMinute();
+        Bucket open = current;
+        if (open.minute != now) {
+            current = new Bucket(now);
+            synchronized (open) {
+                open.closed = true;
+            }
+            close(open, now);
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastPublishedAt >= publishIntervalMillis) {
+            publish();
+            lastPublishedAt = nowMillis;
+        }
+    }
+
+    private void close(Bucket bucket, long now) {
+        for (int i = 0; i < MINUTES; i++) {
+            if (minutes[i] != null && minutes[i].minute <= now - MINUTES) {
+                hourTotals.addAll(minutes[i].counts, -1);
+                minutes[i] = null;
+            }
+        }
+        if (bucket.minute > now - MINUTES) {
+            minutes[(int) (bucket.minute % MINUTES)] = bucket;
+            hourTotals.addAll(bucket.counts, 1);
+        }
+
+        long hourId = bucket.minute / MINUTES;
+        if (hourId != currentHourId) {
+            if (currentHour != null) {
+                expireHours(now / MINUTES);
+                hours[(int) (currentHourId % HOURS)] = currentHour;
+                hourIds[(int) (currentHourId % HOURS)] = currentHourId;
+            }
+            currentHour = new ProductCounts(bucket.counts.size());
+            currentHourId = hourId;
+            // Subtracted buckets leave zeroed products behind; drop them once an hour
+            hourTotals = hourTotals.compact();
+            dayTotals = dayTotals.compact();
+        }
+        currentHour.addAll(bucket.counts, 1);
+        dayTotals.addAll(bucket.counts, 1);
+        expireHours(now / MINUTES);
+    }
+
+    private void expireHours(long nowHour) {
+        for (int i = 0; i < HOURS; i++) {
+            if (hours[i] != null && hourIds[i] <= nowHour - HOURS) {
+                dayTotals.addAll(hours[i], -1);
+                hours[i] = null;
+            }
+        }
+    }
+
+    private void publish() {
+        // The open minute is included as a copy so it is read under its lock only briefly
+        ProductCounts partial = new ProductCounts(16);
+        Bucket open = current;
+        synchronized (open) {
+            partial.addAll(open.counts, 1);
+        }
+        ProductCounts hour = hourTotals.compact();
+        hour.addAll(partial, 1);
+        ProductCounts day = dayTotals.compact();
+        day.addAll(partial, 1);
+
+        CatalogSnapshot catalog = productService.getCatalogSnapshot();
+        Map<String, List<ProductSales>> lists = new LinkedHashMap<>();
+        lists.put(key(HOUR, BY_UNITS), topN(hour, false, catalog));
+        lists.put(key(HOUR, BY_REVENUE), topN(hour, true, catalog));
+        lists.put(key(DAY, BY_UNITS), topN(day, false, catalog));
+        lists.put(key(DAY, BY_REVENUE), topN(day, true, catalog));
+        top = new TopProducts(lists, LocalDateTime.now());
+    }
+
+    // Bounded min-heap, so the cost is O(p log n) for p products sold in the window
+    private List<ProductSales> topN(ProductCounts totals, boolean byRevenue, CatalogSnapshot catalog) {
+        Comparator<long[]> order = byRevenue
+            ? Comparator.<long[]>comparingLong(entry -> entry[2]).thenComparingLong(entry -> entry[1])
+            : Comparator.<long[]>comparingLong(entry -> entry[1]).thenComparingLong(entry -> entry[2]);
+        PriorityQueue<long[]> heap = new PriorityQueue<>(topSize + 1, order);
+        totals.forEach((productId, units, cents) -> {
+            heap.add(new long[] {productId, units, cents});
+            if (heap.size() > topSize) {
+                heap.poll();
+            }
+        });
+
+        List<ProductSales> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            long[] entry = heap.poll();
+            Product product = catalog.getProduct(entry[0]);
+            result.add(new ProductSales(entry[0], product != null ? product.getName() : null, entry[1],
+                entry[2] / 100.0));
+        }
+        Collections.reverse(result);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static String key(String window, String by) {
+        return window + ":" + by;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000L;
+    }
+
+    private static final class Bucket {
+        private final long minute;
+        private final ProductCounts counts = new ProductCounts(64);
+        private boolean closed;
+
+        private Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private static final class TopProducts {
+        private final Map<String, List<ProductSales>> lists;
+        private final LocalDateTime generatedAt;
+
+        private TopProducts(Map<String, List<ProductSales>> lists, LocalDateTime generatedAt) {
+            this.lists = lists;
+            this.generatedAt = generatedAt;
+        }
+    }
+}
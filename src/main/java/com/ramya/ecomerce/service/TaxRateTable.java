@@ -0,0 +1,167 @@
+package com.ramya.ecomerce.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tax rates by country or region code ("US", "US-CA"), read from
+ * tax.rates-location at startup into an immutable map. A reload parses the
+ * whole file into a new map and swaps the reference, so lookups never lock
+ * or touch the file, and a file that fails to parse leaves the current rates
+ * in place.
+ *
+ * The file has one "code,rate" pair per line; "#" starts a comment and the
+ * code DEFAULT sets the rate for codes that are not listed.
+ */
+@Service
+public class TaxRateTable {
+
+    private static final Logger log = LoggerFactory.getLogger(TaxRateTable.class);
+
+    private static final String DEFAULT_CODE = "DEFAULT";
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${tax.rates-location:classpath:tax-rates.csv}")
+    private String ratesLocation;
+
+    private volatile Rates rates = new Rates(Map.of(), OrderService.GST_RATE, 0L);
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Region codes fall back to their country ("US-CA" to "US"), then to the
+     * default rate.
+     */
+    public double getRate(String code) {
+        Rates current = rates;
+        if (code == null || code.isBlank()) {
+            return current.defaultRate;
+        }
+        String normalized = normalize(code);
+        Double rate = current.byCode.get(normalized);
+        int dash = normalized.indexOf('-');
+        if (rate == null && dash > 0) {
+            rate = current.byCode.get(normalized.substring(0, dash));
+        }
+        return rate != null ? rate : current.defaultRate;
+    }
+
+    public int size() {
+        return rates.byCode.size();
+    }
+
+    /**
+     * Reads the rates file and publishes it. Throws IllegalArgumentException
+     * when the file is missing or malformed; the current rates stay in effect.
+     */
+    public synchronized int reload() {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Tax rates file not found: " + ratesLocation);
+        }
+
+        Map<String, Double> byCode = new HashMap<>();
+        double defaultRate = OrderService.GST_RATE;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String content = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (content.isEmpty()) {
+                    continue;
+                }
+                String[] parts = content.split(",");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected code,rate");
+                }
+                String code = normalize(parts[0]);
+                double rate = parseRate(parts[1].trim(), lineNumber);
+                if (DEFAULT_CODE.equals(code)) {
+                    defaultRate = rate;
+                } else {
+                    byCode.put(code, rate);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Tax rates file could not be read: " + e.getMessage(), e);
+        }
+
+        rates = new Rates(Map.copyOf(byCode), defaultRate, lastModified(resource));
+        log.info("Loaded {} tax rates from {}", byCode.size(), ratesLocation);
+        return byCode.size();
+    }
+
+    // Picks up edits to a rates file on disk; classpath resources inside a jar never change
+    @Scheduled(fixedDelayString = "${tax.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        long modified = lastModified(resource);
+        if (modified == 0L || modified == rates.lastModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            log.error("Keeping current tax rates, {} is invalid: {}", ratesLocation, e.getMessage());
+        }
+    }
+
+    private static double parseRate(String value, int lineNumber) {
+        double rate;
+        try {
+            rate = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid rate " + value);
+        }
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": rate must be between 0 and 1");
+        }
+        return rate;
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Rates {
+        private final Map<String, Double> byCode;
+        private final double defaultRate;
+        private final long lastModified;
+
+        private Rates(Map<String, Double> byCode, double defaultRate, long lastModified) {
+            this.byCode = byCode;
+            this.defaultRate = defaultRate;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.entity.Cart;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional in-memory cart store (cart.write-behind.enabled). Carts are held
+ * per user in lock-striped maps and mutations are acknowledged from memory.
+ * Dirty carts are written to the cart table in batched upserts every
+ * flush-interval-ms, as soon as max-dirty carts are waiting, and on shutdown.
+ * After each flush the least recently used clean carts are dropped until at
+ * most max-cached-carts remain; they are reloaded on their next access.
+ *
+ * A line added since the last flush has no database id yet; it is handed out
+ * a negative provisional id, which stays valid for removal after the flush
+ * assigns the real one.
+ */
+@Service
+public class WriteBehindCartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private static final int STRIPES = 64;
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+
+    private static final String DELETE_SQL = "DELETE FROM cart WHERE user_id = ? AND product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CartTotals cartTotals;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.max-dirty:500}")
+    private int maxDirty;
+
+    @Value("${cart.write-behind.max-cached-carts:100000}")
+    private int maxCachedCarts;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Every id a line has been handed out under, provisional or real
+    private final Map<Long, LineKey> linesById = new ConcurrentHashMap<>();
+
+    private final AtomicLong provisionalIds = new AtomicLong();
+    private final AtomicInteger dirtyCarts = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WriteBehindCartStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Cart add(Long userId, Long productId, int quantity) {
+        return withCart(userId, (stripe, cart) -> {
+            Line line = cart.lines.get(productId);
+            if (line == null) {
+                line = new Line(-provisionalIds.incrementAndGet(), quantity);
+                cart.lines.put(productId, line);
+                cart.removed.remove(productId);
+                linesById.put(line.id, new LineKey(userId, productId));
+            } else {
+                line.quantity += quantity;
+            }
+            markDirty(stripe, userId, cart);
+            return new Cart(line.id, userId, productId, line.quantity);
+        });
+    }
+
+    public List<Cart> findByUserId(Long userId) {
+        return withCart(userId, (stripe, cart) -> {
+            List<Cart> rows = new ArrayList<>(cart.lines.size());
+            cart.lines.forEach((productId, line) -> rows.add(new Cart(line.id, userId, productId, line.quantity)));
+            return rows;
+        });
+    }
+
+    public Cart find(Long userId, Long productId) {
+        return withCart(userId, (stripe, cart) -> {
+            Line line = cart.lines.get(productId);
+            return line != null ? new Cart(line.id, userId, productId, line.quantity) : null;
+        });
+    }
+
+    public Cart findById(Long cartId) {
+        LineKey owner = owner(cartId);
+        if (owner == null) {
+            return null;
+        }
+        return withCart(owner.userId, (stripe, cart) -> {
+            Line line = cart.lines.get(owner.productId);
+            return line != null && owner.equals(linesById.get(cartId))
+                ? new Cart(line.id, owner.userId, owner.productId, line.quantity)
+                : null;
+        });
+    }
+
+    public boolean remove(Long cartId) {
+        LineKey owner = owner(cartId);
+        if (owner == null) {
+            return false;
+        }
+        return withCart(owner.userId, (stripe, cart) -> {
+            Line line = cart.lines.get(owner.productId);
+            if (line == null || !owner.equals(linesById.get(cartId))) {
+                return false;
+            }
+            cart.lines.remove(owner.productId);
+            cart.removed.add(owner.productId);
+            forget(line);
+            markDirty(stripe, owner.userId, cart);
+            return true;
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, (stripe, cart) -> {
+            for (Map.Entry<Long, Line> entry : cart.lines.entrySet()) {
+                cart.removed.add(entry.getKey());
+                forget(entry.getValue());
+            }
+            cart.lines.clear();
+            markDirty(stripe, userId, cart);
+            return null;
+        });
+    }
+
+    /**
+     * Drops the in-memory carts of users whose rows were deleted behind the
+     * store's back, so the next access reloads them. Dirty carts are kept;
+     * their next flush writes them back whole.
+     */
+    public void evict(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            Stripe stripe = stripeFor(userId);
+            stripe.lock.lock();
+            try {
+                UserCart cart = stripe.carts.get(userId);
+                if (cart != null && !cart.dirty) {
+                    cart.lines.values().forEach(this::forget);
+                    stripe.carts.remove(userId);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes every dirty cart in one transaction: deletes for removed lines,
+     * then one upsert per remaining line with its absolute quantity. A flush
+     * that fails for any reason but a rejected row puts the carts back in the
+     * dirty set so the next attempt retries them.
+     */
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            writeDirty();
+            trim();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void writeDirty() {
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+        Map<Long, Set<Long>> drained = new HashMap<>();
+        Set<Long> awaitingIds = new HashSet<>();
+
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (Long userId : stripe.dirtyUsers) {
+                    UserCart cart = stripe.carts.get(userId);
+                    cart.dirty = false;
+                    for (Long productId : cart.removed) {
+                        deletes.add(new Object[] {userId, productId});
+                    }
+                    cart.lines.forEach((productId, line) -> {
+                        upserts.add(new Object[] {userId, productId, line.quantity});
+                        if (line.id < 0) {
+                            awaitingIds.add(userId);
+                        }
+                    });
+                    drained.put(userId, new HashSet<>(cart.removed));
+                    cart.removed.clear();
+                }
+                stripe.dirtyUsers.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        dirtyCarts.addAndGet(-drained.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                }
+                if (!upserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A constraint failure in the batch (e.g. a product deleted since it was added) rolled all of it back
+            if (!writeRowByRow(deletes, upserts, drained)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cart flush of {} carts failed, will retry", drained.size(), e);
+            restore(drained);
+            return;
+        }
+
+        if (!awaitingIds.isEmpty()) {
+            assignIds(awaitingIds);
+        }
+    }
+
+    /**
+     * Replays a rolled back flush one statement at a time. Upserts carry
+     * absolute quantities, so rows written before a failure can safely be
+     * written again. Lines the database rejects are logged and dropped from
+     * memory instead of being retried forever.
+     */
+    private boolean writeRowByRow(List<Object[]> deletes, List<Object[]> upserts, Map<Long, Set<Long>> drained) {
+        List<Object[]> rejected = new ArrayList<>();
+        try {
+            for (Object[] row : deletes) {
+                jdbcTemplate.update(DELETE_SQL, row);
+            }
+            for (Object[] row : upserts) {
+                try {
+                    jdbcTemplate.update(UPSERT_SQL, row);
+                } catch (DataIntegrityViolationException e) {
+                    rejected.add(row);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cart flush of {} carts failed, will retry", drained.size(), e);
+            restore(drained);
+            return false;
+        }
+
+        for (Object[] row : rejected) {
+            log.warn("Dropping cart line rejected by the database: user {} product {} quantity {}",
+                row[0], row[1], row[2]);
+            drop((Long) row[0], (Long) row[1]);
+        }
+        return true;
+    }
+
+    private void drop(Long userId, Long productId) {
+        withCart(userId, (stripe, cart) -> {
+            Line line = cart.lines.remove(productId);
+            if (line != null) {
+                forget(line);
+            }
+            return null;
+        });
+        cartTotals.invalidate(List.of(userId));
+    }
+
+    // Evicts least recently used clean carts, stripe by stripe, down to the configured bound
+    private void trim() {
+        int perStripe = Math.max(1, maxCachedCarts / STRIPES);
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<UserCart> carts = stripe.carts.values().iterator();
+                while (stripe.carts.size() > perStripe && carts.hasNext()) {
+                    UserCart cart = carts.next();
+                    // Lines still on provisional ids stay until the flush that gives them real ones
+                    if (!cart.dirty && cart.lines.values().stream().allMatch(line -> line.id > 0)) {
+                        cart.lines.values().forEach(this::forget);
+                        carts.remove();
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private <T> T withCart(Long userId, CartAction<T> action) {
+        Stripe stripe = stripeFor(userId);
+        stripe.lock.lock();
+        try {
+            UserCart cart = stripe.carts.get(userId);
+            if (cart != null) {
+                return action.apply(stripe, cart);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // First touch for this user: read their rows without holding the stripe
+        List<Object[]> rows = jdbcTemplate.query(
+            "SELECT id, product_id, quantity FROM cart WHERE user_id = ? ORDER BY id",
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), rs.getInt(3)}, userId);
+
+        stripe.lock.lock();
+        try {
+            UserCart cart = stripe.carts.computeIfAbsent(userId, loadedUser -> {
+                UserCart loaded = new UserCart();
+                for (Object[] row : rows) {
+                    Line line = new Line((Long) row[0], (Integer) row[2]);
+                    loaded.lines.put((Long) row[1], line);
+                    linesById.put(line.id, new LineKey(userId, (Long) row[1]));
+                }
+                return loaded;
+            });
+            return action.apply(stripe, cart);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeFor(Long userId) {
+        return stripes[Math.floorMod(Long.hashCode(userId), STRIPES)];
+    }
+
+    private LineKey owner(Long cartId) {
+        LineKey key = linesById.get(cartId);
+        if (key == null) {
+            // A row flushed before this store loaded its owner's cart; load the owner and look again
+            List<Long> owners = jdbcTemplate.queryForList("SELECT user_id FROM cart WHERE id = ?", Long.class, cartId);
+            if (owners.isEmpty()) {
+                return null;
+            }
+            withCart(owners.get(0), (stripe, cart) -> null);
+            key = linesById.get(cartId);
+        }
+        return key;
+    }
+
+    private void markDirty(Stripe stripe, Long userId, UserCart cart) {
+        if (!cart.dirty) {
+            cart.dirty = true;
+            stripe.dirtyUsers.add(userId);
+            if (dirtyCarts.incrementAndGet() >= maxDirty && flushQueued.compareAndSet(false, true)) {
+                flusher.execute(() -> {
+                    flushQueued.set(false);
+                    flush();
+                });
+            }
+        }
+    }
+
+    private void forget(Line line) {
+        linesById.remove(line.id);
+        if (line.provisionalId != 0) {
+            linesById.remove(line.provisionalId);
+        }
+    }
+
+    private void restore(Map<Long, Set<Long>> drained) {
+        drained.forEach((userId, removed) -> withCart(userId, (stripe, cart) -> {
+            for (Long productId : removed) {
+                if (!cart.lines.containsKey(productId)) {
+                    cart.removed.add(productId);
+                }
+            }
+            markDirty(stripe, userId, cart);
+            return null;
+        }));
+    }
+
+    // Picks up the AUTO_INCREMENT ids of freshly inserted lines in one query
+    private void assignIds(Set<Long> userIds) {
+        List<Object[]> rows = namedParameterJdbcTemplate.query(
+            "SELECT id, user_id, product_id FROM cart WHERE user_id IN (:userIds)",
+            Collections.singletonMap("userIds", userIds),
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            Long userId = (Long) row[1];
+            Long productId = (Long) row[2];
+            withCart(userId, (stripe, cart) -> {
+                Line line = cart.lines.get(productId);
+                if (line != null && line.id < 0) {
+                    line.provisionalId = line.id;
+                    line.id = id;
+                    linesById.put(id, new LineKey(userId, productId));
+                }
+                return null;
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface CartAction<T> {
+        T apply(Stripe stripe, UserCart cart);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Access order, so trim() meets the least recently used carts first
+        private final Map<Long, UserCart> carts = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<Long> dirtyUsers = new HashSet<>();
+    }
+
+    private static final class UserCart {
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> removed = new HashSet<>();
+        private boolean dirty;
+    }
+
+    private static final class Line {
+        private long id;
+        private long provisionalId;
+        private int quantity;
+
+        private Line(long id, int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class LineKey {
+        private final long userId;
+        private final long productId;
+
+        private LineKey(long userId, long productId) {
+            this.userId = userId;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof LineKey)) {
+                return false;
+            }
+            LineKey key = (LineKey) other;
+            return userId == key.userId && productId == key.productId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(userId) * 31 + Long.hashCode(productId);
+        }
+    }
+}
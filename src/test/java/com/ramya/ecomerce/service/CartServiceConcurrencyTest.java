@@ -0,0 +1,139 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.CartRequest;
+import com.ramya.ecomerce.entity.Cart;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers the addToCart upsert from many threads at once, over a few users
+ * and products so the same rows are contended, and checks that no increment
+ * is lost, no duplicate row appears, every caller gets the row's id back and
+ * the cached totals match the lines.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 200;
+    private static final long FIRST_USER_ID = 5001;
+    private static final int USERS = 4;
+    private static final int PRODUCTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void concurrentAddsKeepOneRowPerProductAndLoseNothing() throws Exception {
+        List<Long> productIds = seedProducts();
+        for (int u = 0; u < USERS; u++) {
+            long userId = FIRST_USER_ID + u;
+            jdbcTemplate.update("INSERT INTO accounts (id, first_name, last_name, email, password) VALUES (?, ?, ?, ?, ?)",
+                userId, "Test", "User", "concurrent" + userId + "@example.com", "password");
+            // Cache the empty total so the adds below go through the incremental path
+            cartService.getCartView(userId);
+        }
+
+        Map<String, Set<Long>> returnedIds = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    long userId = FIRST_USER_ID + (i % USERS);
+                    long productId = productIds.get((i + thread) % PRODUCTS);
+                    Cart cart = cartService.addToCart(userId, new CartRequest(productId, quantity(thread)));
+                    returnedIds.computeIfAbsent(userId + ":" + productId, key -> ConcurrentHashMap.newKeySet())
+                        .add(cart.getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        long[][] expected = new long[USERS][PRODUCTS];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                expected[i % USERS][(i + t) % PRODUCTS] += quantity(t);
+            }
+        }
+
+        for (int u = 0; u < USERS; u++) {
+            long userId = FIRST_USER_ID + u;
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, product_id, quantity FROM cart WHERE user_id = ?", userId);
+            double expectedTotal = 0;
+            int expectedLines = 0;
+            for (int p = 0; p < PRODUCTS; p++) {
+                long productId = productIds.get(p);
+                List<Map<String, Object>> lines = rows.stream()
+                    .filter(row -> ((Number) row.get("product_id")).longValue() == productId)
+                    .toList();
+                if (expected[u][p] == 0) {
+                    assertTrue(lines.isEmpty());
+                    continue;
+                }
+                expectedLines++;
+                assertEquals(1, lines.size(), "one row for user " + userId + " product " + productId);
+                assertEquals(expected[u][p], ((Number) lines.get(0).get("quantity")).longValue());
+                assertEquals(Set.of(((Number) lines.get(0).get("id")).longValue()),
+                    returnedIds.get(userId + ":" + productId));
+                expectedTotal += price(p) * expected[u][p];
+            }
+            assertEquals(expectedLines, rows.size());
+            assertEquals(expectedTotal, cartService.getCartTotal(userId), 0.001);
+        }
+    }
+
+    private List<Long> seedProducts() {
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int p = 0; p < PRODUCTS; p++) {
+            rows.add(new Object[] {"Concurrent add " + p, price(p), 4.0, "Test", 1_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, price, rating, category, stock) VALUES (?, ?, ?, ?, ?)",
+            rows);
+        List<Long> productIds = jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE name LIKE 'Concurrent add %' ORDER BY id", Long.class);
+        // addToCart prices lines from the catalog snapshot
+        productService.reloadCatalog();
+        return productIds;
+    }
+
+    private static int quantity(int thread) {
+        return 1 + thread % 3;
+    }
+
+    private static double price(int product) {
+        return 5.0 + product;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ramya.ecomerce.service;
+
+import com.ramya.ecomerce.dto.CartItemDTO;
+import com.ramya.ecomerce.dto.OrderRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The number of statements a cart read or a checkout sends to the database
+ * must not depend on how many lines the cart or order has.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+class CheckoutStatementCountTest {
+
+    private static final int LINES = 20;
+
+    // Every test gets users and products of its own, since the context and database are shared
+    private static final AtomicLong nextId = new AtomicLong(1000);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    private List<Long> productIds;
+
+    @BeforeEach
+    void seedProducts() {
+        long batch = nextId.incrementAndGet();
+        List<Object[]> rows = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            rows.add(new Object[] {"Statement count " + batch + "-" + i, 10.0 + i, 4.0, "Test", 1_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, price, rating, category, stock) VALUES (?, ?, ?, ?, ?)",
+            rows);
+        productIds = jdbcTemplate.queryForList("SELECT id FROM products WHERE name LIKE ? ORDER BY id", Long.class,
+            "Statement count " + batch + "-%");
+        productService.reloadCatalog();
+    }
+
+    @Test
+    void cartReadIsOneStatementWhateverTheCartSize() {
+        long smallCart = seedUser(1);
+        long largeCart = seedUser(LINES);
+
+        for (long userId : new long[] {smallCart, largeCart}) {
+            StatementCounter.reset();
+            cartService.getCartItems(userId);
+            assertEquals(1, StatementCounter.statements().size(), StatementCounter.statements().toString());
+
+            // First view computes the total from the same single read, later ones reuse it
+            for (int i = 0; i < 2; i++) {
+                StatementCounter.reset();
+                cartService.getCartView(userId);
+                assertEquals(1, StatementCounter.statements().size(), StatementCounter.statements().toString());
+            }
+        }
+    }
+
+    @Test
+    void checkoutStatementsDoNotGrowWithOrderLines() {
+        long userId = seedUser(0);
+        // Loads the stock counters and id blocks that a running instance would already hold
+        orderService.placeOrder(userId, orderFor(LINES));
+
+        StatementCounter.reset();
+        orderService.placeOrder(userId, orderFor(1));
+        List<String> oneLine = StatementCounter.statements();
+
+        StatementCounter.reset();
+        orderService.placeOrder(userId, orderFor(LINES));
+        List<String> manyLines = StatementCounter.statements();
+
+        assertEquals(oneLine.size(), manyLines.size(), oneLine + " vs " + manyLines);
+    }
+
+    private long seedUser(int cartLines) {
+        long userId = nextId.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO accounts (id, first_name, last_name, email, password) VALUES (?, ?, ?, ?, ?)",
+            userId, "Test", "User", "user" + userId + "@example.com", "password");
+        for (int i = 0; i < cartLines; i++) {
+            jdbcTemplate.update("INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?)",
+                userId, productIds.get(i), 1);
+        }
+        return userId;
+    }
+
+    private OrderRequest orderFor(int lines) {
+        List<CartItemDTO> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new CartItemDTO(null, productIds.get(i), 1, 10.0 + i, null));
+        }
+        return new OrderRequest(items, "1 Test Way", "4111111111111111", "Test User", "12/30", "123", "US");
+    }
+}
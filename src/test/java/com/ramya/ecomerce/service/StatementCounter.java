@@ -0,0 +1,81 @@
+package com.ramya.ecomerce.service;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the application's DataSource so a test can see every statement its
+ * own thread sends to the database; scheduled jobs on other threads are not
+ * counted. A JDBC batch counts once, as it is one round trip.
+ *
+ * Statements against id_generators are left out: the pooled id generators
+ * fetch a block of ids every allocationSize inserts, so that cost is spread
+ * over many requests rather than paid by each one.
+ */
+@TestConfiguration
+public class StatementCounter {
+
+    private static final ThreadLocal<List<String>> executed = ThreadLocal.withInitial(ArrayList::new);
+
+    public static void reset() {
+        executed.get().clear();
+    }
+
+    public static List<String> statements() {
+        return new ArrayList<>(executed.get());
+    }
+
+    @Bean
+    static BeanPostProcessor countingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? wrap(DataSource.class, bean, null) : bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, Object target, String sql) {
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                Class<?> returned = method.getReturnType();
+                if (returned == Connection.class) {
+                    return wrap(Connection.class, result, null);
+                }
+                if (result != null && Statement.class.isAssignableFrom(returned)) {
+                    // Prepared statements are given their SQL here; plain ones get it at execute time
+                    return wrap(returned, result, firstString(args));
+                }
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    String executedSql = sql != null ? sql : firstString(args);
+                    if (executedSql == null || !executedSql.contains("id_generators")) {
+                        executed.get().add(executedSql != null ? executedSql : method.getName());
+                    }
+                }
+                return result;
+            });
+    }
+
+    private static String firstString(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}